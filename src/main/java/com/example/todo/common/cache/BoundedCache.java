@@ -0,0 +1,119 @@
+package com.example.todo.common.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small in-process LRU cache bounded by entry count and time-to-live.
+ *
+ * Loads go through {@link #get(Object, Function)} so that an invalidation racing with
+ * a load wins: a value loaded before an invalidation is returned to its caller but is
+ * never stored.
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    public BoundedCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Return the cached value, or load it and cache it if no invalidation happened meanwhile
+    public V get(K key, Function<K, V> loader) {
+        long observedGeneration;
+        synchronized (this) {
+            V cached = lookup(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            observedGeneration = generation;
+        }
+
+        V loaded = loader.apply(key);
+
+        if (loaded != null) {
+            synchronized (this) {
+                if (generation == observedGeneration) {
+                    entries.put(key, new Entry<>(loaded, System.nanoTime() + ttlNanos));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    // Return the cached value without loading it, or null
+    public synchronized V getIfPresent(K key) {
+        V cached = lookup(key);
+        if (cached != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return cached;
+    }
+
+    public synchronized void put(K key, V value) {
+        generation++;
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, expirations, entries.size(), maxSize);
+    }
+
+    private V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key);
+            expirations++;
+            return null;
+        }
+        return entry.value();
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
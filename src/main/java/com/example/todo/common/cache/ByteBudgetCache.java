@@ -0,0 +1,103 @@
+package com.example.todo.common.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-process LRU cache of file contents bounded by the total number of bytes held.
+ *
+ * Entries larger than the per-entry limit are never cached, so one big file cannot flush the
+ * hot set. With direct buffers the contents live outside the Java heap and add no GC work;
+ * their memory is released when an evicted buffer is collected.
+ *
+ * Like {@link BoundedCache}, a value loaded before an invalidation is returned to its caller
+ * but never stored.
+ */
+public class ByteBudgetCache<K> {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final boolean direct;
+    private final LinkedHashMap<K, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytesResident;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ByteBudgetCache(long maxBytes, long maxEntryBytes, boolean direct) {
+        if (maxBytes <= 0 || maxEntryBytes <= 0) {
+            throw new IllegalArgumentException("Cache budgets must be positive: " + maxBytes + ", " + maxEntryBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+        this.direct = direct;
+    }
+
+    // Whether content of this size is ever cached
+    public boolean accepts(long size) {
+        return size <= maxEntryBytes;
+    }
+
+    // Read-only view of the cached content, loading and caching it on a miss
+    public ByteBuffer get(K key, Function<K, byte[]> loader) {
+        long observedGeneration;
+        synchronized (this) {
+            ByteBuffer cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached.asReadOnlyBuffer();
+            }
+            misses++;
+            observedGeneration = generation;
+        }
+
+        byte[] loaded = loader.apply(key);
+        ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(loaded.length).put(loaded).flip() : ByteBuffer.wrap(loaded);
+
+        if (accepts(loaded.length)) {
+            synchronized (this) {
+                if (generation == observedGeneration) {
+                    ByteBuffer previous = entries.put(key, buffer);
+                    if (previous != null) {
+                        bytesResident -= previous.capacity();
+                    }
+                    bytesResident += buffer.capacity();
+                    evictOverBudget();
+                }
+            }
+        }
+        return buffer.asReadOnlyBuffer();
+    }
+
+    public synchronized void invalidate(K key) {
+        generation++;
+        ByteBuffer removed = entries.remove(key);
+        if (removed != null) {
+            bytesResident -= removed.capacity();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        bytesResident = 0;
+    }
+
+    public synchronized ByteCacheStats stats() {
+        return new ByteCacheStats(hits, misses, evictions, entries.size(), bytesResident, maxBytes);
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<K, ByteBuffer>> eldest = entries.entrySet().iterator();
+        while (bytesResident > maxBytes && eldest.hasNext()) {
+            bytesResident -= eldest.next().getValue().capacity();
+            eldest.remove();
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.todo.common.cache;
+
+// Point-in-time counters of a ByteBudgetCache, used to size its byte budget
+public record ByteCacheStats(long hits, long misses, long evictions, int entries, long bytesResident, long maxBytes) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.todo.common.cache;
+
+// Point-in-time counters of a BoundedCache, used to size it
+public record CacheStats(long hits, long misses, long evictions, long expirations, int size, int maxSize) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
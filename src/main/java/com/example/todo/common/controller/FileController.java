@@ -1,29 +1,61 @@
 package com.example.todo.common.controller;
 
+import com.example.todo.common.dto.BatchUploadResult;
+import com.example.todo.common.dto.SpriteSheet;
+import com.example.todo.common.dto.StoredFile;
+import com.example.todo.common.service.BatchUploadService;
 import com.example.todo.common.service.FileStorageService;
+import com.example.todo.common.service.SpriteCacheControl;
+import com.example.todo.common.service.SpriteSheetService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/files")
 public class FileController {
 
+    // Request attributes through which Tomcat's NIO connectors accept a file to send with sendfile
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    // Below this a plain copy is cheaper than handing the file to the poller (Tomcat's own default)
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
     private final FileStorageService fileStorageService;
+    private final SpriteSheetService spriteSheetService;
+    private final SpriteCacheControl spriteCacheControl;
+    private final BatchUploadService batchUploadService;
 
     @Autowired
-    public FileController(FileStorageService fileStorageService) {
+    public FileController(FileStorageService fileStorageService, SpriteSheetService spriteSheetService,
+                          SpriteCacheControl spriteCacheControl, BatchUploadService batchUploadService) {
         this.fileStorageService = fileStorageService;
+        this.spriteSheetService = spriteSheetService;
+        this.spriteCacheControl = spriteCacheControl;
+        this.batchUploadService = batchUploadService;
     }
 
     // Endpoint to upload a file
@@ -43,29 +75,206 @@ public class FileController {
         return ResponseEntity.ok(response);
     }
 
-    // Endpoint to upload multiple files
-    @GetMapping("/{fileName:.+}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable String fileName, HttpServletRequest request) {
-        // Load file as Resource
-        Resource resource = fileStorageService.loadFileAsResource(fileName);
+    // Endpoint to upload many files in one multipart request, staged concurrently. With
+    // characterIds (one per file, in the same order) each stored file also becomes that
+    // character's sprite. Each file gets its own result; one bad file does not fail the rest.
+    @PostMapping("/upload/batch")
+    public ResponseEntity<List<BatchUploadResult>> uploadFiles(@RequestParam("files") List<MultipartFile> files,
+                                                               @RequestParam(value = "characterIds", required = false) List<Long> characterIds) {
+        try {
+            List<BatchUploadResult> results = batchUploadService.uploadBatch(files, characterIds);
+            for (BatchUploadResult result : results) {
+                if (result.getFileName() != null) {
+                    result.setFileUrl(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/v1/files/")
+                            .path(result.getFileName())
+                            .toUriString());
+                }
+            }
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
 
-        // Try to determine file's content type
-        String contentType = null;
+    // Endpoint to fetch several files in one response: an SVG <symbol> sheet when all are SVGs,
+    // otherwise a zip bundle. The ETag comes from the set of names, so a 304 reads no file;
+    // a name that is not stored is a 404.
+    @GetMapping("/sheet")
+    public ResponseEntity<byte[]> getSpriteSheet(@RequestParam List<String> names, WebRequest webRequest) {
         try {
-            contentType = request.getServletContext().getMimeType(resource.getFile().getAbsolutePath());
-        } catch (IOException ex) {
-            // Logger could be used here
+            List<String> normalized = spriteSheetService.normalize(names);
+            // returning null after checkNotModified lets Spring send the 304 it prepared
+            if (webRequest.checkNotModified(spriteSheetService.getETag(normalized))) {
+                return null;
+            }
+            SpriteSheet sheet = spriteSheetService.getSheet(normalized);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(sheet.getContentType()))
+                    .body(sheet.getContent());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // Endpoint to report hit rates and sizes of the file metadata, content and sprite sheet caches
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("metadata", fileStorageService.getMetadataCacheStats());
+        response.put("content", fileStorageService.getContentCacheStats());
+        response.put("sheets", spriteSheetService.getCacheStats());
+        return ResponseEntity.ok(response);
+    }
+
+    // Endpoint to download a file, honouring Range/If-Range and conditional headers.
+    // Small hot files are written from the content cache; larger ones are handed to the
+    // container's sendfile when it offers one, otherwise copied with FileChannel.transferTo.
+    @GetMapping("/{fileName:.+}")
+    public void downloadFile(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        StoredFile file = fileStorageService.describeFile(fileName);
+        // Content-addressed names are cached for good, older ones revalidated; 304s keep the header
+        response.setHeader(HttpHeaders.CACHE_CONTROL, spriteCacheControl.forFileName(fileName).getHeaderValue());
+
+        // Serve the gzip variant written at upload time when the client accepts it;
+        // nothing is compressed per request
+        StoredFile representation = file;
+        if (file.getGzipVariant() != null) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(request)) {
+                representation = file.getGzipVariant();
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+        }
+
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        if (webRequest.checkNotModified(representation.getETag(), representation.getLastModified())) {
+            return;
+        }
+
+        long length = representation.getLength();
+        long start = 0;
+        long end = length - 1;
+
+        List<HttpRange> ranges = rangesToServe(request, representation);
+        if (ranges.size() == 1) {
+            // Multiple ranges would need a multipart/byteranges body; those requests get the whole file
+            HttpRange range = ranges.get(0);
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
         }
 
-        // Fallback to the default content type if type could not be determined
-        if(contentType == null) {
-            contentType = "application/octet-stream";
+        long count = length == 0 ? 0 : end - start + 1;
+        response.setContentType(file.getContentType());
+        response.setContentLengthLong(count);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + file.getFileName() + "\"");
+
+        if (HttpMethod.HEAD.matches(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        ByteBuffer cached = fileStorageService.getCachedContent(representation);
+        if (cached != null && cached.remaining() == length) {
+            cached.position((int) start).limit((int) end + 1);
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            while (cached.hasRemaining()) {
+                target.write(cached);
+            }
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, representation.getPath().toString());
+            request.setAttribute(SENDFILE_START, representation.getOffset() + start);
+            request.setAttribute(SENDFILE_END, representation.getOffset() + end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(representation.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = representation.getOffset() + start;
+            long remaining = count;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, target);
+                if (written <= 0) {
+                    // File shrank underneath us; the client sees a short body
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        }
+    }
+
+    // Whether Accept-Encoding allows gzip, either by name or through * with a non-zero quality
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (!name.equalsIgnoreCase("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        rejected = Double.parseDouble(parameter.substring(2)) <= 0;
+                    } catch (NumberFormatException ex) {
+                        rejected = true;
+                    }
+                }
+            }
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // The ranges to honour: none when there is no Range header, when If-Range no longer matches
+    // the file, or when the header cannot be parsed
+    private List<HttpRange> rangesToServe(HttpServletRequest request, StoredFile file) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return List.of();
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(file.getETag())) {
+            // Either a different entity tag or a date, which must match to the second
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                return List.of();
+            }
+            try {
+                long ifRangeDate = request.getDateHeader(HttpHeaders.IF_RANGE);
+                if (ifRangeDate / 1000 != file.getLastModified() / 1000) {
+                    return List.of();
+                }
+            } catch (IllegalArgumentException ex) {
+                return List.of();
+            }
+        }
+
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException ex) {
+            return List.of();
+        }
     }
 
     // Endpoint to delete a file
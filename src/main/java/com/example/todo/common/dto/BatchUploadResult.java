@@ -0,0 +1,22 @@
+package com.example.todo.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one file of a batch upload, index is the file's position in the request.
+// fileName, fileUrl and sha256 are set when the file was stored, error when it was not.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadResult {
+
+    private int index;
+    private String originalFileName;
+    private long size;
+    private Long characterId;
+    private String fileName;
+    private String fileUrl;
+    private String sha256;
+    private String error;
+}
@@ -0,0 +1,26 @@
+package com.example.todo.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Slice of results for keyset pagination: no total count, just an opaque cursor to the next slice
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        List<R> converted = content.stream().map(converter).collect(Collectors.toList());
+        return new CursorPage<>(converted, size, hasNext, nextCursor);
+    }
+}
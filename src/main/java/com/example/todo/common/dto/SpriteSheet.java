@@ -0,0 +1,14 @@
+package com.example.todo.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// One combined payload for a set of stored files: an SVG symbol sheet or a zip bundle
+@Data
+@AllArgsConstructor
+public class SpriteSheet {
+
+    private byte[] content;
+    private String contentType;
+    private String eTag;
+}
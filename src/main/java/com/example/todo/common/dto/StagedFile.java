@@ -0,0 +1,16 @@
+package com.example.todo.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+// An upload written to the staging directory under the name it will be stored as, not yet
+// visible to downloads; FileStorageService commits or discards it
+@Data
+@AllArgsConstructor
+public class StagedFile {
+
+    private String fileName;
+    private Path stagedPath;
+}
@@ -0,0 +1,31 @@
+package com.example.todo.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.file.Path;
+
+// What a download needs to know about a stored file without touching the filesystem again
+@Data
+@AllArgsConstructor
+public class StoredFile {
+
+    private String fileName;
+    private Path path;
+    // Where the content starts within path; 0 when the file holds nothing else
+    private long offset;
+    private long length;
+    private long lastModified;
+    private String contentType;
+    // Pre-compressed copy written at upload time, null when there is none
+    private StoredFile gzipVariant;
+
+    // Stored files are never rewritten in place, so size and mtime identify the content
+    public String getETag() {
+        return eTagOf(length, lastModified);
+    }
+
+    public static String eTagOf(long length, long lastModified) {
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.todo.common.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs in the version 7 layout: a 48-bit Unix millisecond timestamp, the version,
+ * a 12-bit counter and 62 random bits.
+ *
+ * Ids from one process are strictly increasing: the counter orders ids within a millisecond,
+ * and a counter overflow or a clock step backwards borrows from the next millisecond instead of
+ * going back. Stored as BINARY(16), new rows therefore land at the right edge of the clustered
+ * index instead of splitting pages at random positions.
+ *
+ * Plugged into Hibernate with {@code @UuidGenerator(algorithm = UuidV7Generator.class)}.
+ */
+public class UuidV7Generator implements UuidValueGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Timestamp of the last id in the high bits, counter in the low 12 bits
+    private static final AtomicLong LAST = new AtomicLong();
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return next();
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long state = LAST.updateAndGet(last -> Math.max(now, last + 1));
+        long millis = state >>> 12;
+        long counter = state & 0xFFF;
+
+        long mostSignificant = (millis << 16) | 0x7000L | counter;
+        long leastSignificant = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.todo.common.io;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Walks the items of a bulk request, turning read failures into failed items, so a bad item is
+ * reported in its place instead of aborting a request whose earlier batches are already committed.
+ *
+ * A RuntimeException from next() concerns that item alone (a malformed line): readers used with
+ * this class have moved past it, so the walk goes on. A RuntimeException from hasNext() means the
+ * input itself broke (an I/O error, an unterminated quote); it becomes one last failed item and
+ * the walk ends.
+ */
+public final class BulkItems<T> implements Iterable<BulkItems.Item<T>> {
+
+    // One item at its position in the request; error is set when it could not be read
+    public record Item<T>(int index, T value, String error) {
+
+        public boolean unreadable() {
+            return error != null;
+        }
+    }
+
+    private final Iterator<T> source;
+
+    private BulkItems(Iterator<T> source) {
+        this.source = source;
+    }
+
+    public static <T> BulkItems<T> of(Iterator<T> source) {
+        return new BulkItems<>(source);
+    }
+
+    @Override
+    public Iterator<Item<T>> iterator() {
+        return new Iterator<>() {
+
+            private int index;
+            private boolean broken;
+            private Item<T> pending;
+
+            @Override
+            public boolean hasNext() {
+                if (pending != null) {
+                    return true;
+                }
+                if (broken) {
+                    return false;
+                }
+                try {
+                    if (!source.hasNext()) {
+                        return false;
+                    }
+                } catch (RuntimeException e) {
+                    broken = true;
+                    pending = new Item<>(index++, null, "Input could not be read past this point: " + e.getMessage());
+                    return true;
+                }
+                try {
+                    pending = new Item<>(index, source.next(), null);
+                } catch (RuntimeException e) {
+                    pending = new Item<>(index, null, e.getMessage());
+                }
+                index++;
+                return true;
+            }
+
+            @Override
+            public Item<T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Item<T> item = pending;
+                pending = null;
+                return item;
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.todo.common.io;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads NDJSON one line at a time. Each line is parsed on its own, so a malformed line fails with
+ * an IllegalArgumentException from next() and the following lines still read (unlike Jackson's
+ * MappingIterator, which cannot resynchronise after a syntax error). Blank lines are skipped; a
+ * line holding null comes back as null.
+ */
+public class NdjsonReader<T> implements Iterator<T>, Closeable {
+
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private String nextLine;
+    private int lineNumber;
+
+    public NdjsonReader(InputStream input, ObjectReader objectReader) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.objectReader = objectReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (nextLine == null) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+                lineNumber++;
+                if (!line.isBlank()) {
+                    nextLine = line;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        nextLine = null;
+        try {
+            return objectReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not valid: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.todo.common.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Hashes and checks passwords with bcrypt on a small dedicated pool, so a burst of logins waits
+ * in (or is turned away from) that pool instead of tying up every request thread with ~100 ms
+ * of hashing each. When the queue is full, hash and matches throw RejectedExecutionException,
+ * which callers answer with 503.
+ *
+ * Bulk imports hash on a second pool of their own, so an import never fills the login queue.
+ * When that pool's queue is full the importing thread hashes the password itself.
+ *
+ * Hashes are stored with an {bcrypt} prefix. Passwords stored before hashing was introduced have
+ * no prefix and are compared as plain text; needsUpgrade tells the caller to re-hash them.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final String PRE_HASHED_PREFIX = "{bcrypt}";
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor importExecutor;
+    private final long timeoutMillis;
+
+    @Autowired
+    public PasswordHasher(@Value("${auth.password.bcrypt-strength:10}") int strength,
+                          @Value("${auth.password.threads:2}") int threads,
+                          @Value("${auth.password.queue-capacity:32}") int queueCapacity,
+                          @Value("${auth.password.timeout:PT5S}") Duration timeout,
+                          @Value("${auth.password.import-threads:1}") int importThreads,
+                          @Value("${auth.password.import-queue-capacity:64}") int importQueueCapacity) {
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+        delegating.setDefaultPasswordEncoderForMatches(new LegacyPlainTextEncoder());
+        this.encoder = delegating;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.importExecutor = new ThreadPoolExecutor(importThreads, importThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(importQueueCapacity), new CustomizableThreadFactory("password-import-hash-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public String hash(String rawPassword) {
+        return await(executor.submit(() -> encoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String storedPassword) {
+        return await(executor.submit(() -> encoder.matches(rawPassword, storedPassword)));
+    }
+
+    // Whether a stored password predates the current hashing and should be re-hashed after a login
+    public boolean needsUpgrade(String storedPassword) {
+        return encoder.upgradeEncoding(storedPassword);
+    }
+
+    // Hash many passwords for a bulk import on the import pool, keeping ones that are already bcrypt
+    // hashes. An import is slow by nature, so hashes are awaited without the login timeout.
+    public List<String> hashAll(List<String> rawPasswords) {
+        List<Future<String>> hashing = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            hashing.add(importExecutor.submit(() -> hashForImport(rawPassword)));
+        }
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        try {
+            for (Future<String> hash : hashing) {
+                hashes.add(hash.get());
+            }
+        } catch (ExecutionException e) {
+            hashing.forEach(hash -> hash.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            hashing.forEach(hash -> hash.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Password hashing interrupted");
+        }
+        return hashes;
+    }
+
+    private String hashForImport(String rawPassword) {
+        return rawPassword.startsWith(PRE_HASHED_PREFIX) ? rawPassword : encoder.encode(rawPassword);
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new RejectedExecutionException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Password hashing interrupted");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        importExecutor.shutdown();
+    }
+
+    // Passwords stored before hashing: compared as plain text, never produced
+    private static class LegacyPlainTextEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("Plain text passwords are no longer stored");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String storedPassword) {
+            return storedPassword != null && MessageDigest.isEqual(
+                    rawPassword.toString().getBytes(StandardCharsets.UTF_8), storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
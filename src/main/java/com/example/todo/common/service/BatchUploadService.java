@@ -0,0 +1,222 @@
+package com.example.todo.common.service;
+
+import com.example.todo.common.dto.BatchUploadResult;
+import com.example.todo.common.dto.StagedFile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Stores many uploads from one request. Parts are hashed, validated and staged concurrently on a
+// bounded pool; sprites are then assigned in one batched update through the SpriteAssigner, and
+// only after that are the files made visible, the same order updateCharacterSprite uses for one
+// file. A part that fails only fails its own result.
+@Service
+public class BatchUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchUploadService.class);
+
+    private final FileStorageService fileStorageService;
+    private final Optional<SpriteAssigner> spriteAssigner;
+    private final int maxFiles;
+    private final long maxFileSize;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public BatchUploadService(FileStorageService fileStorageService,
+                              Optional<SpriteAssigner> spriteAssigner,
+                              @Value("${file.batch-upload.max-files:500}") int maxFiles,
+                              @Value("${file.batch-upload.max-file-size:1MB}") DataSize maxFileSize,
+                              @Value("${file.batch-upload.threads:4}") int threads,
+                              @Value("${file.batch-upload.queue-capacity:64}") int queueCapacity) {
+        this.fileStorageService = fileStorageService;
+        this.spriteAssigner = spriteAssigner;
+        this.maxFiles = maxFiles;
+        this.maxFileSize = maxFileSize.toBytes();
+        // With the queue full the request thread runs the task itself, which holds back further
+        // submissions instead of queueing without bound
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("sprite-upload-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // characterIds is either null or parallel to files, one distinct id per file
+    public List<BatchUploadResult> uploadBatch(List<MultipartFile> files, List<Long> characterIds) {
+        validateRequest(files, characterIds);
+
+        List<BatchUploadResult> results = new ArrayList<>(files.size());
+        List<Future<StagedFile>> staging = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            BatchUploadResult result = new BatchUploadResult(i, file.getOriginalFilename(), file.getSize(),
+                    characterIds != null ? characterIds.get(i) : null, null, null, null, null);
+            results.add(result);
+            if (file.isEmpty()) {
+                result.setError("File is empty");
+                staging.add(null);
+            } else if (file.getSize() > maxFileSize) {
+                result.setError("File is larger than " + maxFileSize + " bytes");
+                staging.add(null);
+            } else {
+                staging.add(executor.submit(() -> fileStorageService.stageFile(file)));
+            }
+        }
+
+        StagedFile[] staged = new StagedFile[files.size()];
+        for (int i = 0; i < staged.length; i++) {
+            if (staging.get(i) != null) {
+                staged[i] = await(staging.get(i), results.get(i));
+            }
+        }
+
+        Map<Long, String> previousFileNames = characterIds != null ? assign(staged, results) : Map.of();
+        commit(staged, results, previousFileNames);
+
+        // Replaced sprites go only once nothing points at them any more
+        for (int i = 0; i < staged.length; i++) {
+            Long characterId = results.get(i).getCharacterId();
+            if (staged[i] != null && characterId != null) {
+                String previous = previousFileNames.get(characterId);
+                if (previous != null && !previous.equals(staged[i].getFileName())) {
+                    fileStorageService.deleteFile(previous);
+                }
+            }
+        }
+
+        for (int i = 0; i < staged.length; i++) {
+            if (staged[i] != null) {
+                String fileName = staged[i].getFileName();
+                int extension = fileName.indexOf('.');
+                results.get(i).setFileName(fileName);
+                results.get(i).setSha256(extension > 0 ? fileName.substring(0, extension) : fileName);
+            }
+        }
+        return results;
+    }
+
+    private void validateRequest(List<MultipartFile> files, List<Long> characterIds) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("No files to upload");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("At most " + maxFiles + " files can be uploaded at once");
+        }
+        if (characterIds == null) {
+            return;
+        }
+        if (characterIds.size() != files.size()) {
+            throw new IllegalArgumentException("characterIds must have one id per file");
+        }
+        if (spriteAssigner.isEmpty()) {
+            throw new IllegalArgumentException("Sprites cannot be assigned here");
+        }
+        Set<Long> seen = new HashSet<>();
+        for (Long characterId : characterIds) {
+            if (characterId == null) {
+                throw new IllegalArgumentException("characterIds must not contain empty ids");
+            }
+            if (!seen.add(characterId)) {
+                throw new IllegalArgumentException("Character id " + characterId + " appears more than once");
+            }
+        }
+    }
+
+    // Point the characters at their staged files in one update; files whose character is
+    // missing, or whose update failed, are dropped
+    private Map<Long, String> assign(StagedFile[] staged, List<BatchUploadResult> results) {
+        Map<Long, String> assignments = new HashMap<>();
+        for (int i = 0; i < staged.length; i++) {
+            if (staged[i] != null) {
+                assignments.put(results.get(i).getCharacterId(), staged[i].getFileName());
+            }
+        }
+        if (assignments.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, String> previousFileNames;
+        String failure;
+        try {
+            previousFileNames = spriteAssigner.get().assignSprites(assignments);
+            failure = null;
+        } catch (RuntimeException ex) {
+            previousFileNames = Map.of();
+            failure = ex.getMessage();
+        }
+        for (int i = 0; i < staged.length; i++) {
+            Long characterId = results.get(i).getCharacterId();
+            if (staged[i] != null && !previousFileNames.containsKey(characterId)) {
+                results.get(i).setError(failure != null ? failure : "Character not found with id: " + characterId);
+                fileStorageService.discardStagedFile(staged[i]);
+                staged[i] = null;
+            }
+        }
+        return previousFileNames;
+    }
+
+    // Make the staged files visible concurrently; characters whose file could not be committed
+    // are pointed back at their previous sprite
+    private void commit(StagedFile[] staged, List<BatchUploadResult> results, Map<Long, String> previousFileNames) {
+        List<Future<StagedFile>> commits = new ArrayList<>(staged.length);
+        for (StagedFile stagedFile : staged) {
+            commits.add(stagedFile == null ? null : executor.submit(() -> {
+                fileStorageService.commitStagedFile(stagedFile);
+                return stagedFile;
+            }));
+        }
+
+        Map<Long, String> restore = new HashMap<>();
+        for (int i = 0; i < staged.length; i++) {
+            if (commits.get(i) != null && await(commits.get(i), results.get(i)) == null) {
+                Long characterId = results.get(i).getCharacterId();
+                if (characterId != null) {
+                    restore.put(characterId, previousFileNames.get(characterId));
+                }
+                staged[i] = null;
+            }
+        }
+        if (!restore.isEmpty()) {
+            try {
+                spriteAssigner.get().assignSprites(restore);
+            } catch (RuntimeException ex) {
+                log.error("Could not restore the previous sprites of characters {}", restore.keySet(), ex);
+            }
+        }
+    }
+
+    // The task's value, or null with the error recorded on the result
+    private static StagedFile await(Future<StagedFile> future, BatchUploadResult result) {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            result.setError(ex.getCause().getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            result.setError("Upload interrupted");
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
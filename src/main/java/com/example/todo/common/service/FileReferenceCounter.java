@@ -0,0 +1,19 @@
+package com.example.todo.common.service;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Implemented by features that point at stored files. Stored files are content-addressed and
+// shared, so FileStorageService only deletes one once no counter reports a reference to it.
+public interface FileReferenceCounter {
+
+    long countReferences(String fileName);
+
+    // The subset of fileNames referenced at least once; override with a single query when possible
+    default Set<String> findReferenced(Collection<String> fileNames) {
+        return fileNames.stream()
+                .filter(fileName -> countReferences(fileName) > 0)
+                .collect(Collectors.toSet());
+    }
+}
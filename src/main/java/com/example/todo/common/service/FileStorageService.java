@@ -1,38 +1,109 @@
 package com.example.todo.common.service;
 
+import com.example.todo.common.cache.BoundedCache;
+import com.example.todo.common.cache.ByteBudgetCache;
+import com.example.todo.common.cache.ByteCacheStats;
+import com.example.todo.common.cache.CacheStats;
+import com.example.todo.common.dto.StagedFile;
+import com.example.todo.common.dto.StoredFile;
+import com.example.todo.common.storage.SpriteStorage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class FileStorageService {
 
-    private final Path fileStorageLocation;
-    private final String uploadDir;
+    // Suffix of the gzip copy stored next to a compressible file
+    public static final String GZIP_SUFFIX = ".gz";
+    // Text formats worth pre-compressing; raster sprites are already compressed
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = Set.of(".svg", ".json", ".xml", ".txt");
+    // A variant that saves less than this fraction of the original is not kept
+    private static final double MIN_GZIP_SAVING = 0.1;
+    private static final Pattern XML_COMMENT = Pattern.compile("<!--.*?-->", Pattern.DOTALL);
+    private static final Pattern INDENTATION_BETWEEN_TAGS = Pattern.compile(">\\s*\\n\\s*<");
 
-    public FileStorageService(@Value("${file.upload.directory}") String uploadDir) {
-        this.uploadDir = uploadDir;
-        this.fileStorageLocation = Paths.get(uploadDir)
+    private final SpriteStorage storage;
+    private final Path stagingLocation;
+    private final BoundedCache<String, StoredFile> metadataCache;
+    // Contents of small, frequently served files by stored name (variants under their own name)
+    private final ByteBudgetCache<String> contentCache;
+    private final List<FileReferenceCounter> referenceCounters;
+    // Serializes the exists-check/move in storeFile with the count/delete in deleteFile per name
+    private final Object[] nameLocks = new Object[64];
+
+    public FileStorageService(SpriteStorage storage,
+                              @Value("${file.upload.staging-directory:uploads/staging}") String stagingDir,
+                              @Value("${file.metadata-cache.max-size:10000}") int metadataCacheMaxSize,
+                              @Value("${file.metadata-cache.ttl:PT10M}") Duration metadataCacheTtl,
+                              @Value("${file.content-cache.enabled:true}") boolean contentCacheEnabled,
+                              @Value("${file.content-cache.max-size:64MB}") DataSize contentCacheMaxSize,
+                              @Value("${file.content-cache.max-entry-size:256KB}") DataSize contentCacheMaxEntrySize,
+                              @Value("${file.content-cache.direct:false}") boolean contentCacheDirect,
+                              List<FileReferenceCounter> referenceCounters) {
+        this.storage = storage;
+        this.stagingLocation = Paths.get(stagingDir)
                 .toAbsolutePath().normalize();
+        this.metadataCache = new BoundedCache<>(metadataCacheMaxSize, metadataCacheTtl);
+        this.contentCache = contentCacheEnabled ?
+                new ByteBudgetCache<>(contentCacheMaxSize.toBytes(), contentCacheMaxEntrySize.toBytes(), contentCacheDirect) :
+                null;
+        this.referenceCounters = referenceCounters;
+        for (int i = 0; i < nameLocks.length; i++) {
+            nameLocks[i] = new Object();
+        }
 
         try {
-            Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.stagingLocation);
         } catch (Exception ex) {
-            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
+            throw new RuntimeException("Could not create the directory where uploads are staged.", ex);
         }
     }
 
+    // Stage and commit in one go, for uploads that nothing references yet
     public String storeFile(MultipartFile file) {
+        StagedFile stagedFile = stageFile(file);
+        commitStagedFile(stagedFile);
+        return stagedFile.getFileName();
+    }
+
+    // Stream an upload into the staging directory, hashing it and checking that its content
+    // matches its extension as it is written. Nothing is visible in the storage backend
+    // until commitStagedFile, so callers can write to the database in between.
+    public StagedFile stageFile(MultipartFile file) {
         // Normalize file name
         String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
         String fileExtension = "";
@@ -46,45 +117,352 @@ public class FileStorageService {
             // Get file extension
             int i = originalFileName.lastIndexOf('.');
             if (i > 0) {
-                fileExtension = originalFileName.substring(i);
+                fileExtension = originalFileName.substring(i).toLowerCase();
             }
 
-            // Generate unique file name
-            String fileName = UUID.randomUUID().toString() + fileExtension;
+            // Hash while writing; one copy is kept per distinct content, under its SHA-256 digest
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            Path stagedPath = Files.createTempFile(this.stagingLocation, ".upload-", ".tmp");
+            try {
+                HeadCapturingInputStream inputStream = new HeadCapturingInputStream(
+                        new DigestInputStream(file.getInputStream(), digest));
+                try (inputStream) {
+                    Files.copy(inputStream, stagedPath, StandardCopyOption.REPLACE_EXISTING);
+                }
+                validateContent(originalFileName, fileExtension, inputStream.head());
 
-            // Copy file to the target location (Replacing existing file with the same name)
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            return fileName;
+                String fileName = HexFormat.of().formatHex(digest.digest()) + fileExtension;
+                return new StagedFile(fileName, stagedPath);
+            } catch (IOException | RuntimeException ex) {
+                Files.deleteIfExists(stagedPath);
+                throw ex;
+            }
         } catch (IOException ex) {
             throw new RuntimeException("Could not store file " + originalFileName + ". Please try again!", ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
         }
     }
 
-    public Resource loadFileAsResource(String fileName) {
+    // Make a staged upload visible under its content name; an identical file already stored is
+    // reused and the staged copy dropped
+    public void commitStagedFile(StagedFile stagedFile) {
+        String fileName = stagedFile.getFileName();
+        Path variant = null;
+        try {
+            synchronized (lockFor(fileName)) {
+                if (!storage.exists(fileName)) {
+                    if (COMPRESSIBLE_EXTENSIONS.contains(extensionOf(fileName))) {
+                        variant = writeCompressedVariant(stagedFile.getStagedPath(), fileName);
+                    }
+                    storage.store(fileName, stagedFile.getStagedPath(), variant);
+                    invalidateCaches(fileName);
+                }
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+        } finally {
+            discardStagedFile(stagedFile);
+            if (variant != null) {
+                discardStagedFile(new StagedFile(fileName + GZIP_SUFFIX, variant));
+            }
+        }
+    }
+
+    public void discardStagedFile(StagedFile stagedFile) {
+        try {
+            Files.deleteIfExists(stagedFile.getStagedPath());
+        } catch (IOException ex) {
+            // Left for the orphan sweeper, which clears stale staging files
+        }
+    }
+
+    // Rejects uploads whose leading bytes contradict their image extension; other extensions
+    // are stored as they are
+    private static void validateContent(String originalFileName, String extension, byte[] head) {
+        boolean valid = switch (extension) {
+            case ".png" -> startsWith(head, new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+            case ".jpg", ".jpeg" -> startsWith(head, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF});
+            case ".gif" -> startsWith(head, "GIF87a".getBytes(StandardCharsets.US_ASCII))
+                    || startsWith(head, "GIF89a".getBytes(StandardCharsets.US_ASCII));
+            case ".webp" -> head.length >= 12 && startsWith(head, "RIFF".getBytes(StandardCharsets.US_ASCII))
+                    && new String(head, 8, 4, StandardCharsets.US_ASCII).equals("WEBP");
+            case ".svg" -> looksLikeSvg(head);
+            default -> true;
+        };
+        if (!valid) {
+            throw new IllegalArgumentException("File content does not match its extension " + originalFileName);
+        }
+    }
+
+    private static boolean looksLikeSvg(byte[] head) {
+        String text = new String(head, StandardCharsets.UTF_8).replace("\uFEFF", "").stripLeading();
+        return text.startsWith("<svg") || text.startsWith("<?xml") || text.startsWith("<!--")
+                || text.startsWith("<!DOCTYPE svg");
+    }
+
+    private static boolean startsWith(byte[] head, byte[] prefix) {
+        if (head.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (head[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String extensionOf(String fileName) {
+        int i = fileName.lastIndexOf('.');
+        return i > 0 ? fileName.substring(i) : "";
+    }
+
+    // Keeps the first bytes that pass through, enough to recognise a file type
+    private static class HeadCapturingInputStream extends FilterInputStream {
+
+        private static final int HEAD_SIZE = 64;
+
+        private final byte[] head = new byte[HEAD_SIZE];
+        private int headLength;
+
+        HeadCapturingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && headLength < HEAD_SIZE) {
+                head[headLength++] = (byte) b;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0 && headLength < HEAD_SIZE) {
+                int captured = Math.min(read, HEAD_SIZE - headLength);
+                System.arraycopy(buffer, offset, head, headLength, captured);
+                headLength += captured;
+            }
+            return read;
+        }
+
+        byte[] head() {
+            return Arrays.copyOf(head, headLength);
+        }
+    }
+
+    // Write a gzip copy of the staged file to the staging directory, minifying SVGs first. The stored
+    // file itself stays byte for byte what was uploaded, since its name is the digest of those bytes.
+    // Brotli would compress further but the JDK has no encoder for it, so gzip is the only variant.
+    // Returns the copy, or null when compressing does not pay.
+    private Path writeCompressedVariant(Path tempFile, String fileName) throws IOException {
+        byte[] original = Files.readAllBytes(tempFile);
+        byte[] content = fileName.endsWith(".svg") ? minifySvg(original) : original;
+
+        Path variantTemp = Files.createTempFile(this.stagingLocation, ".upload-", ".gz.tmp");
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new RuntimeException("File not found " + fileName);
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(variantTemp)) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                outputStream.write(content);
+            }
+            if (Files.size(variantTemp) <= original.length * (1 - MIN_GZIP_SAVING)) {
+                return variantTemp;
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(variantTemp);
+            throw ex;
+        }
+        Files.deleteIfExists(variantTemp);
+        return null;
+    }
+
+    // Conservative minification: drops comments and editor indentation between tags. Text
+    // content is left alone, since whitespace inside <text> elements renders.
+    static byte[] minifySvg(byte[] content) {
+        String svg = new String(content, StandardCharsets.UTF_8);
+        if (svg.contains("<![CDATA[")) {
+            return content;
+        }
+        String minified = XML_COMMENT.matcher(svg).replaceAll("");
+        if (!minified.contains("<text")) {
+            minified = INDENTATION_BETWEEN_TAGS.matcher(minified).replaceAll("><");
+        }
+        return minified.strip().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Served from the metadata and content caches; see StoredFileResource
+    public Resource loadFileAsResource(String fileName) {
+        return new StoredFileResource(describeFile(fileName), this);
+    }
+
+    // Whole content of a stored file, for callers that combine or transform files
+    public byte[] loadFileBytes(String fileName) {
+        StoredFile file = describeFile(fileName);
+        ByteBuffer content = getCachedContent(file);
+        if (content != null) {
+            byte[] bytes = new byte[content.remaining()];
+            content.get(bytes);
+            return bytes;
+        }
+        return readContent(file);
+    }
+
+    // Read-only content of a stored file (or variant): the backend's own mapping when it has one,
+    // else the content cache, loading it on a miss; null when caching is off or the file is too
+    // large to be cached
+    public ByteBuffer getCachedContent(StoredFile file) {
+        if (storage.isMemoryMapped()) {
+            try {
+                return storage.read(file);
+            } catch (IOException ex) {
+                throw new RuntimeException("File not found " + file.getFileName(), ex);
             }
+        }
+        if (contentCache == null || !contentCache.accepts(file.getLength())) {
+            return null;
+        }
+        return contentCache.get(file.getFileName(), name -> readContent(file));
+    }
+
+    public ByteCacheStats getContentCacheStats() {
+        return contentCache != null ? contentCache.stats() : null;
+    }
+
+    private byte[] readContent(StoredFile file) {
+        try {
+            ByteBuffer content = storage.read(file);
+            byte[] bytes = new byte[content.remaining()];
+            content.get(bytes);
+            return bytes;
         } catch (IOException ex) {
-            throw new RuntimeException("File not found " + fileName, ex);
+            throw new RuntimeException("File not found " + file.getFileName(), ex);
+        }
+    }
+
+    private void invalidateCaches(String fileName) {
+        metadataCache.invalidate(fileName);
+        if (contentCache != null) {
+            contentCache.invalidate(fileName);
+            contentCache.invalidate(fileName + GZIP_SUFFIX);
+        }
+    }
+
+    // Size, mtime and content type of a stored file, cached so repeated downloads skip the stat
+    // and the MIME lookup
+    public StoredFile describeFile(String fileName) {
+        return metadataCache.get(fileName, this::readMetadata);
+    }
+
+    public CacheStats getMetadataCacheStats() {
+        return metadataCache.stats();
+    }
+
+    private StoredFile readMetadata(String fileName) {
+        String contentType = MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString();
+        StoredFile file = storage.describe(fileName, contentType);
+        if (file == null) {
+            throw new RuntimeException("File not found " + fileName);
         }
+        return file;
     }
 
+    // Delete a stored file unless something still references it. Callers drop their own
+    // reference first, so the file goes away together with its last reference.
+    // Returns whether the file was physically deleted.
     public boolean deleteFile(String fileName) {
         try {
-            Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-            return Files.deleteIfExists(filePath);
+            synchronized (lockFor(fileName)) {
+                if (countReferences(fileName) > 0) {
+                    return false;
+                }
+                invalidateCaches(fileName);
+                return storage.delete(fileName);
+            }
         } catch (IOException ex) {
             throw new RuntimeException("Could not delete file " + fileName, ex);
         }
     }
 
+    public long countReferences(String fileName) {
+        long references = 0;
+        for (FileReferenceCounter counter : referenceCounters) {
+            references += counter.countReferences(fileName);
+        }
+        return references;
+    }
+
+    public Set<String> findReferenced(Collection<String> fileNames) {
+        Set<String> referenced = new HashSet<>();
+        for (FileReferenceCounter counter : referenceCounters) {
+            referenced.addAll(counter.findReferenced(fileNames));
+        }
+        return referenced;
+    }
+
+    public boolean hasReferenceCounters() {
+        return !referenceCounters.isEmpty();
+    }
+
+    // Names of stored files last modified before the given instant, excluding variants and
+    // in-progress temporary files
+    public void forEachStoredFileName(Instant modifiedBefore, Consumer<String> action) {
+        storage.forEachFileName(modifiedBefore, action);
+    }
+
+    // Remove staging and temporary files left behind by uploads that never finished
+    public int deleteStaleTemporaryFiles(Instant modifiedBefore) {
+        int deleted = 0;
+        try (DirectoryStream<Path> directory = Files.newDirectoryStream(this.stagingLocation, ".upload-*")) {
+            for (Path path : directory) {
+                if (Files.getLastModifiedTime(path).toInstant().isBefore(modifiedBefore)
+                        && Files.deleteIfExists(path)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return deleted + storage.deleteStaleTemporaryFiles(modifiedBefore);
+    }
+
+    // Move up to limit files out of the backend's legacy layout, one name lock at a time.
+    // Lookups keep finding both layouts meanwhile. Returns how many files were moved; 0 once
+    // the legacy layout is empty.
+    public int migrateFlatFiles(int limit) {
+        int moved = 0;
+        try {
+            for (String fileName : storage.findLegacyFileNames(limit)) {
+                synchronized (lockFor(fileName)) {
+                    if (storage.migrateLegacyFile(fileName)) {
+                        metadataCache.invalidate(fileName);
+                        moved++;
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return moved;
+    }
+
+    // Let the backend reclaim space held by deleted files; returns the bytes reclaimed
+    public long compactStorage() {
+        return storage.compact(metadataCache::invalidate);
+    }
+
+    private Object lockFor(String fileName) {
+        return nameLocks[Math.floorMod(fileName.hashCode(), nameLocks.length)];
+    }
+
     public String getResourcePath() {
         // Return URL path for accessing the uploaded files
         // When files are in src/main/resources/static/uploads/sprites, they'll be accessible at /uploads/sprites
@@ -0,0 +1,46 @@
+package com.example.todo.common.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Moves files from the flat upload directory into the sharded layout a batch at a time, while
+// FileStorageService keeps resolving both layouts. Once the flat layout is empty each run is a
+// single listing of the shard directories. Only runs with file.shard-migration.enabled=true.
+@Component
+@ConditionalOnProperty(name = "file.shard-migration.enabled", havingValue = "true")
+public class FlatLayoutMigrator {
+
+    private static final Logger log = LoggerFactory.getLogger(FlatLayoutMigrator.class);
+
+    private final FileStorageService fileStorageService;
+    private final int batchSize;
+
+    private long migrated;
+    private boolean finished;
+
+    @Autowired
+    public FlatLayoutMigrator(FileStorageService fileStorageService,
+                              @Value("${file.shard-migration.batch-size:200}") int batchSize) {
+        this.fileStorageService = fileStorageService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${file.shard-migration.interval:PT30S}",
+            initialDelayString = "${file.shard-migration.initial-delay:PT1M}")
+    public void migrateBatch() {
+        int moved = fileStorageService.migrateFlatFiles(batchSize);
+        if (moved > 0) {
+            migrated += moved;
+            finished = false;
+            log.info("Moved {} files into the sharded upload layout ({} so far)", moved, migrated);
+        } else if (!finished) {
+            finished = true;
+            log.info("Flat upload layout is empty; {} files migrated", migrated);
+        }
+    }
+}
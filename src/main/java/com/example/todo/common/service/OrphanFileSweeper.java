@@ -0,0 +1,99 @@
+package com.example.todo.common.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Periodically reclaims stored files that nothing references any more, e.g. uploads through
+// /api/v1/files that were never assigned, or files left by a failed request. The directory is
+// compared against the references in batches, with a pause between batches so the sweep never
+// holds the database or the disk for long. Files younger than min-age are left alone so that
+// an upload can still be assigned after it is stored.
+@Component
+@ConditionalOnProperty(name = "file.orphan-sweep.enabled", havingValue = "true")
+public class OrphanFileSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(OrphanFileSweeper.class);
+
+    private final FileStorageService fileStorageService;
+    private final int batchSize;
+    private final Duration minAge;
+    private final Duration batchPause;
+
+    @Autowired
+    public OrphanFileSweeper(FileStorageService fileStorageService,
+                             @Value("${file.orphan-sweep.batch-size:500}") int batchSize,
+                             @Value("${file.orphan-sweep.min-age:PT24H}") Duration minAge,
+                             @Value("${file.orphan-sweep.batch-pause:PT0.2S}") Duration batchPause) {
+        this.fileStorageService = fileStorageService;
+        this.batchSize = batchSize;
+        this.minAge = minAge;
+        this.batchPause = batchPause;
+    }
+
+    @Scheduled(fixedDelayString = "${file.orphan-sweep.interval:PT1H}",
+            initialDelayString = "${file.orphan-sweep.initial-delay:PT10M}")
+    public void sweep() {
+        // Without anything able to report references every file would look orphaned
+        if (!fileStorageService.hasReferenceCounters()) {
+            log.warn("Skipping orphan sweep: no file reference counters registered");
+            return;
+        }
+
+        Instant cutoff = Instant.now().minus(minAge);
+        int temporaryDeleted = fileStorageService.deleteStaleTemporaryFiles(cutoff);
+
+        List<String> batch = new ArrayList<>(batchSize);
+        int[] totals = new int[2];
+        fileStorageService.forEachStoredFileName(cutoff, fileName -> {
+            batch.add(fileName);
+            if (batch.size() == batchSize) {
+                totals[0] += batch.size();
+                totals[1] += sweepBatch(batch);
+                batch.clear();
+                pause();
+            }
+        });
+        if (!batch.isEmpty()) {
+            totals[0] += batch.size();
+            totals[1] += sweepBatch(batch);
+        }
+
+        log.info("Orphan sweep checked {} files, deleted {} orphans and {} stale temporary files",
+                totals[0], totals[1], temporaryDeleted);
+    }
+
+    // One reference query per batch; deleteFile re-checks each candidate under its lock, so a
+    // file assigned since the query survives
+    int sweepBatch(List<String> fileNames) {
+        Set<String> referenced = fileStorageService.findReferenced(fileNames);
+        int deleted = 0;
+        for (String fileName : fileNames) {
+            if (!referenced.contains(fileName) && fileStorageService.deleteFile(fileName)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private void pause() {
+        if (batchPause.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPause.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.todo.common.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Periodically rewrites sprite packs that are mostly deleted records, when the pack backend is
+// in use. Packs it retires are removed on the following run.
+@Component
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "pack")
+public class PackCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(PackCompactor.class);
+
+    private final FileStorageService fileStorageService;
+
+    @Autowired
+    public PackCompactor(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    @Scheduled(fixedDelayString = "${file.pack.compaction.interval:PT10M}",
+            initialDelayString = "${file.pack.compaction.initial-delay:PT5M}")
+    public void compact() {
+        long reclaimed = fileStorageService.compactStorage();
+        if (reclaimed > 0) {
+            log.info("Sprite pack compaction reclaimed {} bytes", reclaimed);
+        }
+    }
+}
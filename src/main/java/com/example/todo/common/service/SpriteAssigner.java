@@ -0,0 +1,13 @@
+package com.example.todo.common.service;
+
+import java.util.Map;
+
+// Lets the feature that owns sprites point its records at stored files in bulk, so batch
+// uploads can assign sprites without depending on that feature
+public interface SpriteAssigner {
+
+    // Point each id at its stored file name (null clears the sprite) in one transaction.
+    // Returns the file name each updated id pointed at before (null when it had none); ids
+    // that do not exist are missing from the result.
+    Map<Long, String> assignSprites(Map<Long, String> fileNamesById);
+}
@@ -0,0 +1,35 @@
+package com.example.todo.common.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+// Cache policy for served sprites. A content-addressed name can never serve different bytes, so
+// browsers and CDNs may keep it without asking again; older names are revalidated on every use,
+// which costs a 304 at most.
+@Component
+public class SpriteCacheControl {
+
+    // SHA-256 of the content in hex, then the extension, as written by FileStorageService.stageFile
+    private static final Pattern FINGERPRINTED_NAME = Pattern.compile("[0-9a-f]{64}(\\.[0-9a-z]+)?");
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    private final CacheControl immutable;
+
+    @Autowired
+    public SpriteCacheControl(@Value("${file.cache-control.max-age:P365D}") Duration maxAge) {
+        this.immutable = CacheControl.maxAge(maxAge).cachePublic().immutable();
+    }
+
+    public static boolean isFingerprinted(String fileName) {
+        return fileName != null && FINGERPRINTED_NAME.matcher(fileName).matches();
+    }
+
+    public CacheControl forFileName(String fileName) {
+        return isFingerprinted(fileName) ? immutable : REVALIDATE;
+    }
+}
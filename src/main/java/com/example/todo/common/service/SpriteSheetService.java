@@ -0,0 +1,190 @@
+package com.example.todo.common.service;
+
+import com.example.todo.common.cache.ByteBudgetCache;
+import com.example.todo.common.cache.ByteCacheStats;
+import com.example.todo.common.dto.SpriteSheet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Combines several stored files into one response so a page of character cards needs one
+// request instead of one per sprite. Stored files never change under their name, so the set of
+// names alone identifies a sheet: it is the cache key and the source of the ETag. Sheets of up to
+// a hundred sprites vary widely in size, so the cache is bounded by bytes rather than entries.
+@Service
+public class SpriteSheetService {
+
+    public static final String SYMBOL_ID_PREFIX = "sprite-";
+
+    private static final Pattern SVG_ROOT = Pattern.compile("<svg\\b([^>]*?)(/?)>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern VIEW_BOX = attributePattern("viewBox");
+    private static final Pattern WIDTH = attributePattern("width");
+    private static final Pattern HEIGHT = attributePattern("height");
+    private static final Pattern PRESERVE_ASPECT_RATIO = attributePattern("preserveAspectRatio");
+
+    private final FileStorageService fileStorageService;
+    private final ByteBudgetCache<String> sheetCache;
+    private final int maxFiles;
+
+    @Autowired
+    public SpriteSheetService(FileStorageService fileStorageService,
+                              @Value("${file.sprite-sheet.max-files:100}") int maxFiles,
+                              @Value("${file.sprite-sheet.cache.max-size:16MB}") DataSize cacheMaxSize,
+                              @Value("${file.sprite-sheet.cache.max-entry-size:2MB}") DataSize cacheMaxEntrySize) {
+        this.fileStorageService = fileStorageService;
+        this.maxFiles = maxFiles;
+        this.sheetCache = new ByteBudgetCache<>(cacheMaxSize.toBytes(), cacheMaxEntrySize.toBytes(), false);
+    }
+
+    // Sorted, de-duplicated file names; the canonical form of a sheet request
+    public List<String> normalize(Collection<String> fileNames) {
+        List<String> names = fileNames.stream()
+                .filter(name -> name != null && !name.isBlank())
+                .map(String::trim)
+                .distinct()
+                .sorted()
+                .toList();
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("At least one file name is required");
+        }
+        if (names.size() > maxFiles) {
+            throw new IllegalArgumentException("At most " + maxFiles + " files can be combined");
+        }
+        return names;
+    }
+
+    // ETag of the sheet for already normalized names, available without reading any file
+    public String getETag(List<String> names) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.join("\n", names).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    // Every name is looked up first, so a missing or deleted file fails the request (a RuntimeException,
+    // as from FileStorageService) even when a sheet containing it is still cached
+    public SpriteSheet getSheet(List<String> names) {
+        names.forEach(fileStorageService::describeFile);
+        boolean allSvg = names.stream().allMatch(name -> name.toLowerCase().endsWith(".svg"));
+        ByteBuffer cached = sheetCache.get(String.join("\n", names),
+                key -> allSvg ? buildSymbolSheet(names) : buildZip(names));
+        byte[] content = new byte[cached.remaining()];
+        cached.get(content);
+        return new SpriteSheet(content, allSvg ? "image/svg+xml" : "application/zip", getETag(names));
+    }
+
+    public ByteCacheStats getCacheStats() {
+        return sheetCache.stats();
+    }
+
+    // Each SVG becomes <symbol id="sprite-<name without extension>">, usable as <use href="#sprite-...">.
+    // Ids inside the sprites are not rewritten, so sprites sharing gradient ids can clash.
+    private byte[] buildSymbolSheet(List<String> names) {
+        StringBuilder sheet = new StringBuilder("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">");
+        for (String name : names) {
+            String svg = new String(fileStorageService.loadFileBytes(name), StandardCharsets.UTF_8);
+            Matcher root = SVG_ROOT.matcher(svg);
+            if (!root.find()) {
+                throw new RuntimeException("Not an SVG file " + name);
+            }
+            String attributes = root.group(1);
+            boolean selfClosing = !root.group(2).isEmpty();
+            int close = svg.lastIndexOf("</svg>");
+            String body = selfClosing || close < root.end() ? "" : svg.substring(root.end(), close);
+
+            sheet.append("<symbol id=\"").append(SYMBOL_ID_PREFIX).append(stripExtension(name)).append('"');
+            String viewBox = viewBox(attributes);
+            if (viewBox != null) {
+                sheet.append(" viewBox=\"").append(viewBox).append('"');
+            }
+            String preserveAspectRatio = attribute(PRESERVE_ASPECT_RATIO, attributes);
+            if (preserveAspectRatio != null) {
+                sheet.append(" preserveAspectRatio=\"").append(preserveAspectRatio).append('"');
+            }
+            sheet.append('>').append(body).append("</symbol>");
+        }
+        return sheet.append("</svg>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Entries are stored uncompressed: raster sprites are already compressed
+    private byte[] buildZip(List<String> names) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (String name : names) {
+                byte[] content = fileStorageService.loadFileBytes(name);
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                ZipEntry entry = new ZipEntry(name);
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(content.length);
+                entry.setCrc(crc.getValue());
+                zip.putNextEntry(entry);
+                zip.write(content);
+                zip.closeEntry();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String viewBox(String attributes) {
+        String viewBox = attribute(VIEW_BOX, attributes);
+        if (viewBox != null) {
+            return viewBox;
+        }
+        String width = attribute(WIDTH, attributes);
+        String height = attribute(HEIGHT, attributes);
+        if (width == null || height == null) {
+            return null;
+        }
+        try {
+            return "0 0 " + length(width) + " " + length(height);
+        } catch (NumberFormatException ex) {
+            // Relative sizes such as 100% say nothing about the coordinate system
+            return null;
+        }
+    }
+
+    private static String length(String value) {
+        return new BigDecimal(value.trim().replace("px", "")).stripTrailingZeros().toPlainString();
+    }
+
+    private static String attribute(Pattern pattern, String attributes) {
+        Matcher matcher = pattern.matcher(attributes);
+        if (!matcher.find()) {
+            return null;
+        }
+        return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+    }
+
+    private static Pattern attributePattern(String name) {
+        return Pattern.compile("(?<![\\w:-])" + name + "\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+    }
+
+    private static String stripExtension(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.todo.common.service;
+
+import com.example.todo.common.dto.StoredFile;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+// A stored file described by FileStorageService's cached metadata, so serving it needs no stat
+// or MIME lookup, and read from the content cache when it is small enough to be held there
+public class StoredFileResource extends AbstractResource {
+
+    private final StoredFile file;
+    private final FileStorageService fileStorageService;
+
+    StoredFileResource(StoredFile file, FileStorageService fileStorageService) {
+        this.file = file;
+        this.fileStorageService = fileStorageService;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    // A file kept inside a pack is not a file of its own
+    @Override
+    public boolean isFile() {
+        return file.getOffset() == 0;
+    }
+
+    @Override
+    public File getFile() throws IOException {
+        if (!isFile()) {
+            throw new FileNotFoundException(getDescription() + " is not a file of its own");
+        }
+        return file.getPath().toFile();
+    }
+
+    @Override
+    public String getFilename() {
+        return file.getFileName();
+    }
+
+    @Override
+    public long contentLength() {
+        return file.getLength();
+    }
+
+    @Override
+    public long lastModified() {
+        return file.getLastModified();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        ByteBuffer content = fileStorageService.getCachedContent(file);
+        if (content == null) {
+            return Files.newInputStream(file.getPath());
+        }
+        return new InputStream() {
+            @Override
+            public int read() {
+                return content.hasRemaining() ? content.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (!content.hasRemaining()) {
+                    return -1;
+                }
+                int read = Math.min(length, content.remaining());
+                content.get(buffer, offset, read);
+                return read;
+            }
+
+            @Override
+            public int available() {
+                return content.remaining();
+            }
+        };
+    }
+
+    // Lets EncodedResourceResolver find the gzip variant through the same caches
+    @Override
+    public Resource createRelative(String relativePath) {
+        StoredFile variant = file.getGzipVariant();
+        if (variant != null && relativePath.equals(variant.getFileName())) {
+            return new StoredFileResource(variant, fileStorageService);
+        }
+        return new FileSystemResource(file.getPath().resolveSibling(relativePath));
+    }
+
+    @Override
+    public String getDescription() {
+        return "stored file [" + file.getFileName() + " in " + file.getPath() + "]";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || (other instanceof StoredFileResource resource && file.getPath().equals(resource.file.getPath())
+                && file.getOffset() == resource.file.getOffset());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * file.getPath().hashCode() + Long.hashCode(file.getOffset());
+    }
+}
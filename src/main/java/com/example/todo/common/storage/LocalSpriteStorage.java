@@ -0,0 +1,264 @@
+package com.example.todo.common.storage;
+
+import com.example.todo.common.dto.StoredFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// One file per stored name under the upload directory, sharded two levels deep, with the gzip
+// variant next to it. Files from the older flat layout are still found until migrated.
+@Component
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalSpriteStorage implements SpriteStorage {
+
+    private static final String GZIP_SUFFIX = ".gz";
+    // Content-addressed (and older UUID) names start with hex digits, which are used as shard directories
+    private static final Pattern HEX_PREFIX = Pattern.compile("[0-9a-f]{4}");
+    // Shard directories, the files in them, and temporary files next to those
+    private static final int LAYOUT_DEPTH = 3;
+
+    private final Path fileStorageLocation;
+    private final Path stagingLocation;
+
+    @Autowired
+    public LocalSpriteStorage(@Value("${file.upload.directory}") String uploadDir,
+                              @Value("${file.upload.staging-directory:uploads/staging}") String stagingDir) {
+        this.fileStorageLocation = Paths.get(uploadDir)
+                .toAbsolutePath().normalize();
+        this.stagingLocation = Paths.get(stagingDir)
+                .toAbsolutePath().normalize();
+
+        try {
+            Files.createDirectories(this.fileStorageLocation);
+        } catch (Exception ex) {
+            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
+        }
+    }
+
+    @Override
+    public boolean exists(String fileName) {
+        return findStoredPath(fileName) != null;
+    }
+
+    @Override
+    public StoredFile describe(String fileName, String contentType) {
+        Path filePath = findStoredPath(fileName);
+        if (filePath == null) {
+            return null;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            return new StoredFile(fileName, filePath, 0, attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), contentType, describeVariant(filePath, contentType));
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            throw new RuntimeException("File not found " + fileName, ex);
+        }
+    }
+
+    private StoredFile describeVariant(Path filePath, String contentType) throws IOException {
+        Path variantPath = variantOf(filePath);
+        if (!Files.isRegularFile(variantPath)) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(variantPath, BasicFileAttributes.class);
+        return new StoredFile(variantPath.getFileName().toString(), variantPath, 0, attributes.size(),
+                attributes.lastModifiedTime().toMillis(), contentType, null);
+    }
+
+    @Override
+    public void store(String fileName, Path content, Path gzipVariant) throws IOException {
+        Path targetLocation = shardedPath(fileName);
+        Files.createDirectories(targetLocation.getParent());
+        // The variant is in place before the file itself becomes visible
+        if (gzipVariant != null) {
+            moveIntoPlace(gzipVariant, variantOf(targetLocation));
+        }
+        moveIntoPlace(content, targetLocation);
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            // Staging on another filesystem: copy next to the target first, then rename
+            Path sibling = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            try {
+                Files.copy(source, sibling, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(sibling, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(sibling);
+            }
+        }
+    }
+
+    @Override
+    public ByteBuffer read(StoredFile file) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(file.getPath()));
+    }
+
+    @Override
+    public boolean delete(String fileName) throws IOException {
+        Path shardedPath = shardedPath(fileName);
+        Path flatPath = flatPath(fileName);
+        Files.deleteIfExists(variantOf(shardedPath));
+        Files.deleteIfExists(variantOf(flatPath));
+        boolean deleted = Files.deleteIfExists(shardedPath);
+        return Files.deleteIfExists(flatPath) || deleted;
+    }
+
+    // The tree is read lazily, one entry at a time, covering both layouts and skipping variants
+    // and in-progress temporary files
+    @Override
+    public void forEachFileName(Instant modifiedBefore, Consumer<String> action) {
+        try (Stream<Path> paths = Files.walk(this.fileStorageLocation, LAYOUT_DEPTH)) {
+            paths.forEach(path -> {
+                String fileName = path.getFileName().toString();
+                if (fileName.startsWith(".") || fileName.endsWith(GZIP_SUFFIX) || path.startsWith(this.stagingLocation)) {
+                    return;
+                }
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attributes.isRegularFile() && attributes.lastModifiedTime().toInstant().isBefore(modifiedBefore)) {
+                        action.accept(fileName);
+                    }
+                } catch (NoSuchFileException ex) {
+                    // Deleted or migrated since it was listed
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public int deleteStaleTemporaryFiles(Instant modifiedBefore) {
+        int deleted = 0;
+        try (Stream<Path> paths = Files.walk(this.fileStorageLocation, LAYOUT_DEPTH)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.getFileName().toString().startsWith(".upload-")
+                        && !path.startsWith(this.stagingLocation)
+                        && Files.getLastModifiedTime(path).toInstant().isBefore(modifiedBefore)
+                        && Files.deleteIfExists(path)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return deleted;
+    }
+
+    // Files still in the flat legacy layout, at most limit of them
+    @Override
+    public List<String> findLegacyFileNames(int limit) {
+        List<String> fileNames = new ArrayList<>();
+        try (DirectoryStream<Path> directory = Files.newDirectoryStream(this.fileStorageLocation)) {
+            for (Path path : directory) {
+                if (fileNames.size() >= limit) {
+                    break;
+                }
+                String fileName = path.getFileName().toString();
+                if (!fileName.startsWith(".") && !fileName.endsWith(GZIP_SUFFIX) && Files.isRegularFile(path)) {
+                    fileNames.add(fileName);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return fileNames;
+    }
+
+    // Move one flat file (with its variant) into its shard. Lookups try the shard first and then
+    // the flat location, so both keep serving meanwhile.
+    @Override
+    public boolean migrateLegacyFile(String fileName) throws IOException {
+        Path path = flatPath(fileName);
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        Path target = shardedPath(fileName);
+        Files.createDirectories(target.getParent());
+        Path variant = variantOf(path);
+        if (Files.exists(variant)) {
+            Files.move(variant, variantOf(target), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // An identical file may already be in the shard; the names are content-derived
+        Files.move(path, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return true;
+    }
+
+    // Where a stored file currently lives: its shard, else the flat legacy location, else null
+    public Path findStoredPath(String fileName) {
+        if (!isValidFileName(fileName)) {
+            return null;
+        }
+        Path shardedPath = shardedPath(fileName);
+        if (Files.isRegularFile(shardedPath)) {
+            return shardedPath;
+        }
+        Path flatPath = flatPath(fileName);
+        return Files.isRegularFile(flatPath) ? flatPath : null;
+    }
+
+    // Two levels of fan-out, ab/cd/<name>, so no directory grows past a few thousand entries
+    // even with millions of files. Names not starting with hex digits are sharded by their hash.
+    private Path shardedPath(String fileName) {
+        if (!isValidFileName(fileName)) {
+            throw new RuntimeException("File not found " + fileName);
+        }
+        String key = HEX_PREFIX.matcher(fileName).lookingAt() ? fileName : sha256Hex(fileName);
+        return this.fileStorageLocation.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(fileName);
+    }
+
+    private Path flatPath(String fileName) {
+        if (!isValidFileName(fileName)) {
+            throw new RuntimeException("File not found " + fileName);
+        }
+        return this.fileStorageLocation.resolve(fileName);
+    }
+
+    private static boolean isValidFileName(String fileName) {
+        return fileName != null && !fileName.isEmpty() && !fileName.startsWith(".")
+                && fileName.indexOf('/') < 0 && fileName.indexOf('\\') < 0;
+    }
+
+    private static Path variantOf(Path path) {
+        return path.resolveSibling(path.getFileName() + GZIP_SUFFIX);
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
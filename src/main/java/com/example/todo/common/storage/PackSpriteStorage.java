@@ -0,0 +1,485 @@
+package com.example.todo.common.storage;
+
+import com.example.todo.common.dto.StoredFile;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Stores sprites as records appended to a few large pack files instead of one file each, so
+ * small SVGs take no inode or block of their own and a read opens nothing.
+ *
+ * Every pack is an append-only log of records: a file, a gzip variant, or a tombstone that
+ * cancels an earlier record. The in-memory index is rebuilt by scanning the packs in order at
+ * startup; a torn record at the end of the last pack (a crash mid-append) fails its checksum
+ * and is cut off. Reads are slices of a read-only mapping of the pack.
+ *
+ * Deleting only appends a tombstone. {@link #compact} copies the live records of packs that are
+ * mostly garbage into the current pack and retires them; a retired pack is deleted on the
+ * following run, so downloads that resolved an entry in it can finish.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage.backend", havingValue = "pack")
+public class PackSpriteStorage implements SpriteStorage, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PackSpriteStorage.class);
+
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final Pattern PACK_NAME = Pattern.compile("pack-(\\d{6})\\.dat");
+
+    private static final int MAGIC = 0x53505031;
+    private static final byte FILE = 1;
+    private static final byte VARIANT = 2;
+    private static final byte TOMBSTONE = 3;
+    // magic, type, name length, content length, last modified, tombstone target (pack id and
+    // record offset), CRC32 of everything else in the record; then the name and the content
+    private static final int HEADER_SIZE = 4 + 1 + 2 + 4 + 8 + 4 + 8 + 4;
+
+    private final Path packLocation;
+    private final long maxPackSize;
+    private final double compactionMinGarbageRatio;
+    private final long compactionMinGarbageSize;
+
+    // Stored name (variants under name + ".gz") to the live record; read without locking
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final Map<Path, Pack> packsByPath = new ConcurrentHashMap<>();
+    // Everything below is guarded by this
+    private final TreeMap<Integer, Pack> packs = new TreeMap<>();
+    private final List<Pack> retired = new ArrayList<>();
+    private Pack current;
+
+    @Autowired
+    public PackSpriteStorage(@Value("${file.pack.directory:uploads/packs}") String packDir,
+                             @Value("${file.pack.max-size:256MB}") DataSize maxPackSize,
+                             @Value("${file.pack.compaction.min-garbage-ratio:0.5}") double compactionMinGarbageRatio,
+                             @Value("${file.pack.compaction.min-garbage-size:1MB}") DataSize compactionMinGarbageSize) {
+        this.packLocation = Paths.get(packDir)
+                .toAbsolutePath().normalize();
+        // A pack is mapped as a single buffer
+        this.maxPackSize = Math.min(maxPackSize.toBytes(), Integer.MAX_VALUE);
+        this.compactionMinGarbageRatio = compactionMinGarbageRatio;
+        this.compactionMinGarbageSize = compactionMinGarbageSize.toBytes();
+
+        try {
+            Files.createDirectories(this.packLocation);
+            openPacks();
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not open the sprite packs in " + this.packLocation, ex);
+        }
+    }
+
+    @Override
+    public boolean exists(String fileName) {
+        Entry entry = index.get(fileName);
+        return entry != null && !entry.variant();
+    }
+
+    @Override
+    public StoredFile describe(String fileName, String contentType) {
+        Entry entry = index.get(fileName);
+        if (entry == null || entry.variant()) {
+            return null;
+        }
+        Entry variant = index.get(fileName + GZIP_SUFFIX);
+        StoredFile gzipVariant = variant != null && variant.variant() ?
+                toStoredFile(fileName + GZIP_SUFFIX, variant, contentType, null) :
+                null;
+        return toStoredFile(fileName, entry, contentType, gzipVariant);
+    }
+
+    private static StoredFile toStoredFile(String fileName, Entry entry, String contentType, StoredFile gzipVariant) {
+        return new StoredFile(fileName, entry.pack().path, entry.contentOffset(), entry.length(),
+                entry.lastModified(), contentType, gzipVariant);
+    }
+
+    // Copies the staged content into the current pack; the caller removes the staged files
+    @Override
+    public void store(String fileName, Path content, Path gzipVariant) throws IOException {
+        ByteBuffer fileContent = ByteBuffer.wrap(Files.readAllBytes(content));
+        ByteBuffer variantContent = gzipVariant != null ? ByteBuffer.wrap(Files.readAllBytes(gzipVariant)) : null;
+        long lastModified = System.currentTimeMillis();
+        synchronized (this) {
+            // The variant is indexed before the file itself becomes visible
+            if (variantContent != null) {
+                String variantName = fileName + GZIP_SUFFIX;
+                put(variantName, append(VARIANT, variantName, variantContent, lastModified, 0, 0));
+            }
+            put(fileName, append(FILE, fileName, fileContent, lastModified, 0, 0));
+        }
+    }
+
+    @Override
+    public ByteBuffer read(StoredFile file) throws IOException {
+        Pack pack = packsByPath.get(file.getPath());
+        if (pack == null) {
+            // Compacted and deleted since it was described; the name still identifies the content
+            Entry entry = index.get(file.getFileName());
+            if (entry == null) {
+                throw new NoSuchFileException(file.getFileName());
+            }
+            return entry.pack().slice(entry.contentOffset(), entry.length());
+        }
+        return pack.slice(file.getOffset(), (int) file.getLength());
+    }
+
+    @Override
+    public synchronized boolean delete(String fileName) throws IOException {
+        String variantName = fileName + GZIP_SUFFIX;
+        Entry variant = index.get(variantName);
+        if (variant != null && variant.variant()) {
+            remove(variantName, variant);
+        }
+        Entry entry = index.get(fileName);
+        if (entry == null || entry.variant()) {
+            return false;
+        }
+        remove(fileName, entry);
+        return true;
+    }
+
+    @Override
+    public void forEachFileName(Instant modifiedBefore, Consumer<String> action) {
+        long before = modifiedBefore.toEpochMilli();
+        index.forEach((fileName, entry) -> {
+            if (!entry.variant() && entry.lastModified() < before) {
+                action.accept(fileName);
+            }
+        });
+    }
+
+    // Appends go straight into the pack, so there are no temporary files
+    @Override
+    public int deleteStaleTemporaryFiles(Instant modifiedBefore) {
+        return 0;
+    }
+
+    @Override
+    public boolean isMemoryMapped() {
+        return true;
+    }
+
+    @Override
+    public long compact(Consumer<String> relocated) {
+        try {
+            deleteRetiredPacks();
+            List<Pack> candidates = new ArrayList<>();
+            synchronized (this) {
+                // The current pack is sealed first so that its live records have somewhere to go
+                if (isWorthCompacting(current)) {
+                    rollOver();
+                }
+                for (Pack pack : packs.values()) {
+                    if (pack != current && isWorthCompacting(pack)) {
+                        candidates.add(pack);
+                    }
+                }
+            }
+            long reclaimed = 0;
+            for (Pack pack : candidates) {
+                reclaimed += compactPack(pack, relocated);
+            }
+            return reclaimed;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // The minimum size keeps a few tombstones, which may have to be carried forward, from
+    // sealing a new pack on every run
+    private boolean isWorthCompacting(Pack pack) {
+        long garbage = pack.size - pack.liveBytes;
+        return garbage > 0 && garbage >= compactionMinGarbageSize && garbage >= pack.size * compactionMinGarbageRatio;
+    }
+
+    // Copy the live records of a sealed pack, and the tombstones still cancelling records in
+    // other packs, into the current pack one record at a time, then retire it. Returns the
+    // number of bytes that were not copied.
+    private long compactPack(Pack pack, Consumer<String> relocated) throws IOException {
+        ByteBuffer view = pack.slice(0, (int) pack.size);
+        List<String> moved = new ArrayList<>();
+        long copied = 0;
+        long position = 0;
+        while (position < pack.size) {
+            Header header = Header.read(view, (int) position);
+            String name = header.name(view, (int) position);
+            synchronized (this) {
+                if (header.type() == TOMBSTONE) {
+                    if (header.targetPack() != pack.id && packs.containsKey(header.targetPack())) {
+                        append(TOMBSTONE, name, null, header.lastModified(), header.targetPack(), header.targetOffset());
+                        copied += header.recordSize();
+                    }
+                } else {
+                    Entry entry = index.get(name);
+                    if (entry != null && entry.pack() == pack && entry.recordOffset() == position) {
+                        ByteBuffer content = view.slice((int) entry.contentOffset(), entry.length());
+                        put(name, append(header.type(), name, content, header.lastModified(), 0, 0));
+                        copied += header.recordSize();
+                        moved.add(entry.variant() ? name.substring(0, name.length() - GZIP_SUFFIX.length()) : name);
+                    }
+                }
+            }
+            position += header.recordSize();
+        }
+        synchronized (this) {
+            packs.remove(pack.id);
+            retired.add(pack);
+        }
+        moved.forEach(relocated);
+        log.info("Compacted sprite pack {}: kept {} of {} bytes", pack.path.getFileName(), copied, pack.size);
+        return pack.size - copied;
+    }
+
+    private void deleteRetiredPacks() throws IOException {
+        List<Pack> expired;
+        synchronized (this) {
+            expired = new ArrayList<>(retired);
+            retired.clear();
+        }
+        for (Pack pack : expired) {
+            packsByPath.remove(pack.path);
+            pack.channel.close();
+            Files.deleteIfExists(pack.path);
+        }
+    }
+
+    // Append one record to the current pack, starting a new pack when it would outgrow max-size
+    private Entry append(byte type, String name, ByteBuffer content, long lastModified,
+                         int targetPack, long targetOffset) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = content != null ? content.remaining() : 0;
+        long recordSize = (long) HEADER_SIZE + nameBytes.length + length;
+        if (recordSize > Integer.MAX_VALUE) {
+            throw new IOException("File too large for a sprite pack: " + name);
+        }
+        if (current.size > 0 && current.size + recordSize > maxPackSize) {
+            rollOver();
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .put(type)
+                .putShort((short) nameBytes.length)
+                .putInt(length)
+                .putLong(lastModified)
+                .putInt(targetPack)
+                .putLong(targetOffset);
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 0, HEADER_SIZE - 4);
+        crc.update(nameBytes);
+        if (content != null) {
+            crc.update(content.duplicate());
+        }
+        header.putInt((int) crc.getValue()).flip();
+
+        ByteBuffer[] record = {header, ByteBuffer.wrap(nameBytes), content != null ? content.duplicate() : ByteBuffer.allocate(0)};
+        long recordOffset = current.size;
+        current.channel.position(recordOffset);
+        long remaining = recordSize;
+        while (remaining > 0) {
+            remaining -= current.channel.write(record);
+        }
+        current.size += recordSize;
+        return new Entry(current, recordOffset, (int) recordSize, recordOffset + HEADER_SIZE + nameBytes.length,
+                length, lastModified, type == VARIANT);
+    }
+
+    private void put(String name, Entry entry) {
+        Entry previous = index.put(name, entry);
+        entry.pack().liveBytes += entry.recordSize();
+        if (previous != null) {
+            previous.pack().liveBytes -= previous.recordSize();
+        }
+    }
+
+    private void remove(String name, Entry entry) throws IOException {
+        append(TOMBSTONE, name, null, System.currentTimeMillis(), entry.pack().id, entry.recordOffset());
+        index.remove(name);
+        entry.pack().liveBytes -= entry.recordSize();
+    }
+
+    private void rollOver() throws IOException {
+        int id = current == null ? 1 : current.id + 1;
+        current = openPack(id);
+        packs.put(id, current);
+    }
+
+    private Pack openPack(int id) throws IOException {
+        Path path = packLocation.resolve(String.format("pack-%06d.dat", id));
+        Pack pack = new Pack(id, path, FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+        packsByPath.put(path, pack);
+        return pack;
+    }
+
+    // Rebuild the index from the packs in the order they were written
+    private void openPacks() throws IOException {
+        TreeMap<Integer, Path> existing = new TreeMap<>();
+        try (DirectoryStream<Path> directory = Files.newDirectoryStream(packLocation)) {
+            for (Path path : directory) {
+                Matcher matcher = PACK_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    existing.put(Integer.parseInt(matcher.group(1)), path);
+                }
+            }
+        }
+        for (int id : existing.keySet()) {
+            Pack pack = openPack(id);
+            packs.put(id, pack);
+            long fileSize = pack.channel.size();
+            scan(pack, fileSize);
+            if (pack.size < fileSize) {
+                log.warn("Ignoring {} unreadable bytes at the end of sprite pack {}", fileSize - pack.size, pack.path.getFileName());
+                if (id == existing.lastKey()) {
+                    pack.channel.truncate(pack.size);
+                    pack.unmap();
+                }
+            }
+            current = pack;
+        }
+        if (current == null) {
+            rollOver();
+        }
+        log.info("Opened {} sprite packs holding {} entries", packs.size(), index.size());
+    }
+
+    private void scan(Pack pack, long fileSize) throws IOException {
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Sprite pack too large: " + pack.path);
+        }
+        ByteBuffer view = fileSize == 0 ? ByteBuffer.allocate(0) : pack.slice(0, (int) fileSize);
+        long position = 0;
+        while (position + HEADER_SIZE <= fileSize) {
+            Header header = Header.read(view, (int) position);
+            if (header == null || header.length() < 0 || position + header.recordSize() > fileSize
+                    || !header.isIntact(view, (int) position)) {
+                break;
+            }
+            String name = header.name(view, (int) position);
+            if (header.type() == TOMBSTONE) {
+                Entry entry = index.get(name);
+                if (entry != null && entry.pack().id == header.targetPack() && entry.recordOffset() == header.targetOffset()) {
+                    index.remove(name);
+                    entry.pack().liveBytes -= entry.recordSize();
+                }
+            } else {
+                put(name, new Entry(pack, position, (int) header.recordSize(),
+                        position + HEADER_SIZE + header.nameLength(), header.length(), header.lastModified(),
+                        header.type() == VARIANT));
+            }
+            position += header.recordSize();
+        }
+        pack.size = position;
+    }
+
+    @PreDestroy
+    @Override
+    public synchronized void close() throws IOException {
+        for (Pack pack : packsByPath.values()) {
+            pack.channel.close();
+        }
+    }
+
+    private record Entry(Pack pack, long recordOffset, int recordSize, long contentOffset, int length,
+                         long lastModified, boolean variant) {
+    }
+
+    private record Header(byte type, int nameLength, int length, long lastModified, int targetPack,
+                          long targetOffset, int crc) {
+
+        // The header at position, or null when no record starts there
+        static Header read(ByteBuffer view, int position) {
+            if (view.getInt(position) != MAGIC) {
+                return null;
+            }
+            return new Header(view.get(position + 4), view.getShort(position + 5) & 0xFFFF, view.getInt(position + 7),
+                    view.getLong(position + 11), view.getInt(position + 19), view.getLong(position + 23),
+                    view.getInt(position + 31));
+        }
+
+        long recordSize() {
+            return (long) HEADER_SIZE + nameLength + length;
+        }
+
+        String name(ByteBuffer view, int position) {
+            return StandardCharsets.UTF_8.decode(view.slice(position + HEADER_SIZE, nameLength)).toString();
+        }
+
+        boolean isIntact(ByteBuffer view, int position) {
+            CRC32 check = new CRC32();
+            check.update(view.slice(position, HEADER_SIZE - 4));
+            check.update(view.slice(position + HEADER_SIZE, nameLength + length));
+            return (int) check.getValue() == crc;
+        }
+    }
+
+    // One pack file; size and liveBytes are guarded by the storage
+    private static final class Pack {
+
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        // End of the last complete record, where the next append goes
+        long size;
+        // Bytes of records the index still points at
+        long liveBytes;
+        private volatile MappedByteBuffer mapped;
+
+        Pack(int id, Path path, FileChannel channel) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+        }
+
+        ByteBuffer slice(long offset, int length) throws IOException {
+            MappedByteBuffer view = mapped;
+            if (view == null || offset + length > view.capacity()) {
+                view = remap(offset + length);
+            }
+            return view.slice((int) offset, length).asReadOnlyBuffer();
+        }
+
+        // Drops a mapping that extends past the end of the file
+        synchronized void unmap() {
+            mapped = null;
+        }
+
+        // The current pack grows after it is mapped; map it again once a read goes past the end
+        private synchronized MappedByteBuffer remap(long required) throws IOException {
+            MappedByteBuffer view = mapped;
+            if (view == null || required > view.capacity()) {
+                view = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                mapped = view;
+            }
+            return view;
+        }
+    }
+}
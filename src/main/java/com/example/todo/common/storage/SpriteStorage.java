@@ -0,0 +1,58 @@
+package com.example.todo.common.storage;
+
+import com.example.todo.common.dto.StoredFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Where FileStorageService keeps committed files. Hashing, validation, variants, reference
+// counting, per-name locking and caching stay in the service; a backend only places, finds,
+// reads and removes content by stored name. Selected with file.storage.backend.
+public interface SpriteStorage {
+
+    boolean exists(String fileName);
+
+    // Location and size of a stored file and its gzip variant, or null when it is not stored
+    StoredFile describe(String fileName, String contentType);
+
+    // Take over the staged content (and its optional gzip variant) under fileName. The variant
+    // must be readable as soon as the file itself is.
+    void store(String fileName, Path content, Path gzipVariant) throws IOException;
+
+    // Read-only content of a file described by this backend
+    ByteBuffer read(StoredFile file) throws IOException;
+
+    // Remove a file and its variant; returns whether the file was stored
+    boolean delete(String fileName) throws IOException;
+
+    // Names of stored files (not variants) last modified before the given instant
+    void forEachFileName(Instant modifiedBefore, Consumer<String> action);
+
+    // Remove temporary files this backend left behind; returns how many
+    int deleteStaleTemporaryFiles(Instant modifiedBefore);
+
+    // Whether read() maps the content instead of copying it, so caching it on the heap gains nothing
+    default boolean isMemoryMapped() {
+        return false;
+    }
+
+    // Up to limit files still kept in an older layout
+    default List<String> findLegacyFileNames(int limit) {
+        return List.of();
+    }
+
+    // Move one file out of an older layout; returns whether it was there
+    default boolean migrateLegacyFile(String fileName) throws IOException {
+        return false;
+    }
+
+    // Reclaim space held by deleted files, reporting each file whose location changed;
+    // returns how many bytes were reclaimed
+    default long compact(Consumer<String> relocated) {
+        return 0;
+    }
+}
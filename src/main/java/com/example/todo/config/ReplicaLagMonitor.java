@@ -0,0 +1,79 @@
+package com.example.todo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Periodically asks the replica how far behind the primary it is, and lets ReadWriteRoutingDataSource
+ * use it only while that is within max-lag. A replica that cannot be queried, reports no lag
+ * (replication stopped, or not a replica at all) or lags too far is skipped until a later check
+ * passes, so readOnly transactions fall back to the primary instead of returning stale rows.
+ *
+ * The lag query defaults to MySQL's SHOW REPLICA STATUS; with an empty query the replica is
+ * always used.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final long maxLagSeconds;
+
+    // Unknown until the first check has passed
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, String lagColumn, Duration maxLag) {
+        this.replica = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLagSeconds = maxLag.toSeconds();
+        this.replicaUsable = lagQuery.isBlank();
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval:PT5S}")
+    public void check() {
+        if (lagQuery.isBlank()) {
+            return;
+        }
+        boolean usable;
+        String reason;
+        try {
+            Long lag = replica.query(lagQuery, this::readLag);
+            usable = lag != null && lag <= maxLagSeconds;
+            reason = lag == null ? "replica reports no lag (replication not running)" : "replica lag " + lag + "s";
+        } catch (RuntimeException e) {
+            usable = false;
+            reason = "replica lag check failed: " + e.getMessage();
+        }
+
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Routing read-only transactions to the replica again ({})", reason);
+            } else {
+                log.warn("Routing read-only transactions to the primary: {}", reason);
+            }
+        }
+        replicaUsable = usable;
+    }
+
+    private Long readLag(ResultSet rows) throws SQLException {
+        if (!rows.next()) {
+            return null;
+        }
+        Object lag = rows.getMetaData().getColumnCount() == 1 ? rows.getObject(1) : rows.getObject(lagColumn);
+        return lag instanceof Number number ? number.longValue() : lag == null ? null : Long.valueOf(lag.toString());
+    }
+}
@@ -1,25 +1,50 @@
 package com.example.todo.config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import static org.springframework.security.config.http.SessionCreationPolicy.STATELESS;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import com.example.todo.functions.authMaster.security.TokenAuthenticationFilter;
+import com.example.todo.functions.authMaster.service.TokenAuthenticator;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // With auth.token.enabled=true a TokenAuthenticator exists and writes need a bearer token;
+    // reads of the catalog and sprites, login and sign-up stay public. Otherwise every request is permitted.
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, ObjectProvider<TokenAuthenticator> tokenAuthenticator) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
-            .authorizeHttpRequests(auth -> auth
+            .sessionManagement(session -> session.sessionCreationPolicy(STATELESS));
+
+        TokenAuthenticator authenticator = tokenAuthenticator.getIfAvailable();
+        if (authenticator == null) {
+            http.authorizeHttpRequests(auth -> auth
                 .anyRequest().permitAll()
+            );
+            return http.build();
+        }
+
+        http
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers(HttpMethod.POST, "/api/auth/login", "/api/users").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/v1/**", "/uploads/**").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/api/v1/**", "/uploads/**").permitAll()
+                .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                .anyRequest().authenticated()
             )
-            .sessionManagement(session -> session.sessionCreationPolicy(STATELESS));
-        
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+            .addFilterBefore(new TokenAuthenticationFilter(authenticator), UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 }
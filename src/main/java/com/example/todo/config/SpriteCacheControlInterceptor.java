@@ -0,0 +1,45 @@
+package com.example.todo.config;
+
+import com.example.todo.common.service.FileStorageService;
+import com.example.todo.common.service.SpriteCacheControl;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Sets Cache-Control on /uploads/** before the resource handler writes the response. A missing
+// file gets no header, so a 404 for a fingerprinted name is never cached for a year.
+public class SpriteCacheControlInterceptor implements HandlerInterceptor {
+
+    private final FileStorageService fileStorageService;
+    private final SpriteCacheControl spriteCacheControl;
+
+    public SpriteCacheControlInterceptor(FileStorageService fileStorageService, SpriteCacheControl spriteCacheControl) {
+        this.fileStorageService = fileStorageService;
+        this.spriteCacheControl = spriteCacheControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        String fileName = uri.substring(uri.lastIndexOf('/') + 1);
+        if (SpriteCacheControl.isFingerprinted(fileName) && !isStored(fileName)) {
+            return true;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, spriteCacheControl.forFileName(fileName).getHeaderValue());
+        return true;
+    }
+
+    private boolean isStored(String fileName) {
+        try {
+            fileStorageService.describeFile(fileName);
+            return true;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.todo.config;
+
+import com.example.todo.common.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.resource.AbstractResourceResolver;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.util.List;
+
+// Resolves /uploads/<name> through FileStorageService, so the URL stays the same whether the
+// file sits in its shard directory or still in the flat legacy layout; small files are served
+// from the content cache
+public class StoredFileResourceResolver extends AbstractResourceResolver {
+
+    private final FileStorageService fileStorageService;
+
+    public StoredFileResourceResolver(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    @Override
+    @Nullable
+    protected Resource resolveResourceInternal(@Nullable HttpServletRequest request, String requestPath,
+                                               List<? extends Resource> locations, ResourceResolverChain chain) {
+        if (requestPath.contains("/")) {
+            return chain.resolveResource(request, requestPath, locations);
+        }
+        try {
+            return fileStorageService.loadFileAsResource(requestPath);
+        } catch (RuntimeException ex) {
+            // Missing or invalid name; the handler answers 404
+            return null;
+        }
+    }
+
+    @Override
+    @Nullable
+    protected String resolveUrlPathInternal(String resourceUrlPath, List<? extends Resource> locations,
+                                            ResourceResolverChain chain) {
+        return chain.resolveUrlPath(resourceUrlPath, locations);
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.todo.config;
 
+import com.example.todo.common.dto.StoredFile;
+import com.example.todo.common.service.FileStorageService;
+import com.example.todo.common.service.SpriteCacheControl;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -14,12 +22,43 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Value("${file.upload.directory}")
     private String uploadDir;
 
+    private final FileStorageService fileStorageService;
+    private final SpriteCacheControl spriteCacheControl;
+
+    @Autowired
+    public WebMvcConfig(FileStorageService fileStorageService, SpriteCacheControl spriteCacheControl) {
+        this.fileStorageService = fileStorageService;
+        this.spriteCacheControl = spriteCacheControl;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SpriteCacheControlInterceptor(fileStorageService, spriteCacheControl))
+                .addPathPatterns("/uploads/**");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         Path uploadPath = Paths.get(uploadDir);
         String uploadAbsolutePath = uploadPath.toAbsolutePath().normalize().toString();
 
+        // EncodedResourceResolver serves the .gz variant FileStorageService writes at upload time
+        // when Accept-Encoding allows it, and StoredFileResourceResolver finds the file in either
+        // the sharded or the flat layout. Resolutions are not cached so deleted sprites disappear.
+        // The ETag matches the one /api/v1/files sends, so revalidating either URL can end in a 304.
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadAbsolutePath + "/");
+                .addResourceLocations("file:" + uploadAbsolutePath + "/")
+                .setEtagGenerator(WebMvcConfig::eTagOf)
+                .resourceChain(false)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new StoredFileResourceResolver(fileStorageService));
+    }
+
+    private static String eTagOf(Resource resource) {
+        try {
+            return StoredFile.eTagOf(resource.contentLength(), resource.lastModified());
+        } catch (IOException ex) {
+            return null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package com.example.todo.functions.authMaster.controller;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.todo.functions.authMaster.dto.LoginRequest;
+import com.example.todo.functions.authMaster.dto.TokenResponse;
+import com.example.todo.functions.authMaster.security.AuthenticatedUser;
+import com.example.todo.functions.authMaster.service.AuthService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/auth")
+@ConditionalOnProperty(name = "auth.token.enabled", havingValue = "true")
+public class AuthController {
+
+    @Autowired
+    private AuthService authService;
+
+    //LOGIN: exchange email and password for a bearer token
+    @PostMapping("/login")
+    public ResponseEntity<TokenResponse> login(@Valid @RequestBody LoginRequest request) {
+        try {
+            TokenResponse token = authService.login(request.getEmail(), request.getPassword());
+            if (token == null) {
+                return ResponseEntity.status(401).build();
+            }
+            return ResponseEntity.ok(token);
+        } catch (RejectedExecutionException e) {
+            //password hashing pool is saturated
+            return ResponseEntity.status(503).build();
+        }
+    }
+
+    //LOGOUT: revoke the token this request was made with
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal AuthenticatedUser user) {
+        authService.logout(user);
+        return ResponseEntity.noContent().build();
+    }
+
+    //who the token belongs to
+    @GetMapping("/me")
+    public ResponseEntity<AuthenticatedUser> me(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(user);
+    }
+}
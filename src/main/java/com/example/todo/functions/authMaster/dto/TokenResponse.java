@@ -0,0 +1,17 @@
+package com.example.todo.functions.authMaster.dto;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Issued bearer token; send it back as "Authorization: Bearer <token>"
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenResponse {
+    private String token;
+    private String tokenType;
+    private Instant expiresAt;
+}
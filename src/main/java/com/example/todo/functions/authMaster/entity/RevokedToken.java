@@ -0,0 +1,30 @@
+package com.example.todo.functions.authMaster.entity;
+
+import java.sql.Timestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//a token revoked before its expiry; kept until it would have expired anyway
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_token_expires", columnList = "expires_at")
+})
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id", length = 36, nullable = false)
+    private String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Timestamp expiresAt;
+}
@@ -0,0 +1,24 @@
+package com.example.todo.functions.authMaster.repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.todo.functions.authMaster.entity.RevokedToken;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    //ids of revoked tokens that have not expired yet
+    @Query("SELECT r.tokenId FROM RevokedToken r WHERE r.expiresAt > ?1")
+    List<String> findTokenIdsExpiringAfter(Timestamp now);
+
+    //forget revocations of tokens that have expired anyway
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= ?1")
+    int deleteExpired(Timestamp now);
+}
@@ -0,0 +1,7 @@
+package com.example.todo.functions.authMaster.security;
+
+import java.time.Instant;
+
+// Principal of a request authenticated with a token, built from its claims alone
+public record AuthenticatedUser(String id, String email, String tokenId, Instant expiresAt) {
+}
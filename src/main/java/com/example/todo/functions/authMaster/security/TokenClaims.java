@@ -0,0 +1,5 @@
+package com.example.todo.functions.authMaster.security;
+
+// Payload of a signed token: token id, user id, email, and issue/expiry times in epoch seconds
+public record TokenClaims(String jti, String sub, String email, long iat, long exp) {
+}
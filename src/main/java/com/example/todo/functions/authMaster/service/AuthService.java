@@ -0,0 +1,61 @@
+package com.example.todo.functions.authMaster.service;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.example.todo.common.security.PasswordHasher;
+import com.example.todo.functions.authMaster.dto.TokenResponse;
+import com.example.todo.functions.authMaster.security.AuthenticatedUser;
+import com.example.todo.functions.authMaster.security.TokenClaims;
+import com.example.todo.functions.userMaster.entity.User;
+import com.example.todo.functions.userMaster.repository.UserRepository;
+
+//login is the only place a token request reads the users table; the password check runs on
+//PasswordHasher's pool and no transaction is held open while it does
+@Service
+@ConditionalOnProperty(name = "auth.token.enabled", havingValue = "true")
+public class AuthService {
+
+    private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final TokenService tokenService;
+    private final TokenAuthenticator tokenAuthenticator;
+
+    //checked for unknown emails so they take as long as a wrong password
+    private final String unknownUserHash;
+
+    @Autowired
+    public AuthService(UserRepository userRepository, PasswordHasher passwordHasher,
+                       TokenService tokenService, TokenAuthenticator tokenAuthenticator) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.tokenService = tokenService;
+        this.tokenAuthenticator = tokenAuthenticator;
+        this.unknownUserHash = passwordHasher.hash("unknown-user");
+    }
+
+    //a token for the user, or null when the email and password do not match an active user
+    public TokenResponse login(String email, String password) {
+        User user = userRepository.findByEmail(email);
+        if (user == null || Boolean.TRUE.equals(user.getIsDeleted())) {
+            passwordHasher.matches(password, unknownUserHash);
+            return null;
+        }
+        if (!passwordHasher.matches(password, user.getPassword())) {
+            return null;
+        }
+        if (passwordHasher.needsUpgrade(user.getPassword())) {
+            userRepository.updatePasswordById(user.getId(), passwordHasher.hash(password));
+        }
+
+        TokenClaims claims = tokenService.issue(user.getId().toString(), user.getEmail());
+        return new TokenResponse(tokenService.encode(claims), "Bearer", Instant.ofEpochSecond(claims.exp()));
+    }
+
+    public void logout(AuthenticatedUser user) {
+        tokenAuthenticator.revoke(user);
+    }
+}
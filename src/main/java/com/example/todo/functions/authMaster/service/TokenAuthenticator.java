@@ -0,0 +1,56 @@
+package com.example.todo.functions.authMaster.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.todo.common.cache.BoundedCache;
+import com.example.todo.common.cache.CacheStats;
+import com.example.todo.functions.authMaster.security.AuthenticatedUser;
+import com.example.todo.functions.authMaster.security.TokenClaims;
+
+// Turns a bearer token into its principal without touching the database: the signature and
+// expiry are checked on every request, revocation against the in-memory list, and the principal
+// built from the claims is cached by token id
+@Component
+@ConditionalOnProperty(name = "auth.token.enabled", havingValue = "true")
+public class TokenAuthenticator {
+
+    private final TokenService tokenService;
+    private final TokenRevocationList revocationList;
+    private final BoundedCache<String, AuthenticatedUser> principalCache;
+
+    @Autowired
+    public TokenAuthenticator(TokenService tokenService,
+                              TokenRevocationList revocationList,
+                              @Value("${auth.principal-cache.max-size:10000}") int cacheMaxSize,
+                              @Value("${auth.principal-cache.ttl:PT5M}") Duration cacheTtl) {
+        this.tokenService = tokenService;
+        this.revocationList = revocationList;
+        this.principalCache = new BoundedCache<>(cacheMaxSize, cacheTtl);
+    }
+
+    // The token's principal; IllegalArgumentException when it is invalid, expired or revoked
+    public AuthenticatedUser authenticate(String token) {
+        TokenClaims claims = tokenService.verify(token);
+        if (revocationList.isRevoked(claims.jti())) {
+            principalCache.invalidate(claims.jti());
+            throw new IllegalArgumentException("Token has been revoked");
+        }
+        return principalCache.get(claims.jti(), tokenId ->
+                new AuthenticatedUser(claims.sub(), claims.email(), tokenId, Instant.ofEpochSecond(claims.exp())));
+    }
+
+    public void revoke(AuthenticatedUser user) {
+        revocationList.revoke(user.tokenId(), user.expiresAt());
+        principalCache.invalidate(user.tokenId());
+    }
+
+    public CacheStats principalCacheStats() {
+        return principalCache.stats();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.todo.functions.authMaster.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.todo.functions.authMaster.entity.RevokedToken;
+import com.example.todo.functions.authMaster.repository.RevokedTokenRepository;
+
+/**
+ * Ids of revoked, unexpired tokens, held in memory so checking a request costs a set lookup.
+ * Revocations are written to revoked_tokens and the set is reloaded from there periodically, so
+ * a token revoked on one instance is refused by the others within one refresh interval.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.token.enabled", havingValue = "true")
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    // Replaced wholesale on refresh; revocations made here meanwhile are added to it directly
+    private volatile Set<String> revoked = ConcurrentHashMap.newKeySet();
+    // Held while adding to revoked and while swapping it, so no revocation lands in a set that
+    // is being replaced after the refresh took its snapshot
+    private final Object swapLock = new Object();
+
+    @Autowired
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return revoked.contains(tokenId);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, Timestamp.from(expiresAt)));
+        synchronized (swapLock) {
+            revoked.add(tokenId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-interval:PT30S}")
+    public void refresh() {
+        try {
+            Timestamp now = Timestamp.from(Instant.now());
+            revokedTokenRepository.deleteExpired(now);
+            Set<String> loaded = ConcurrentHashMap.newKeySet();
+            loaded.addAll(revokedTokenRepository.findTokenIdsExpiringAfter(now));
+            // Keep revocations saved here while the query ran
+            Set<String> previous;
+            synchronized (swapLock) {
+                previous = new HashSet<>(revoked);
+                revoked = loaded;
+            }
+            previous.removeAll(loaded);
+            for (String tokenId : previous) {
+                if (revokedTokenRepository.existsById(tokenId)) {
+                    loaded.add(tokenId);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the last known set
+            log.warn("Could not refresh the token revocation list", e);
+        }
+    }
+}
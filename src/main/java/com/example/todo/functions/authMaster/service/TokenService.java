@@ -0,0 +1,145 @@
+package com.example.todo.functions.authMaster.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.example.todo.functions.authMaster.security.TokenClaims;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Issues and verifies HS256-signed tokens in the compact JWT format. Verification is pure CPU:
+ * an HMAC over the header and payload compared in constant time, then the expiry check, with no
+ * lookup of the user.
+ *
+ * Tokens are signed with auth.token.secret; auth.token.previous-secrets are still accepted for
+ * verification so the secret can be rotated without logging everyone out. Secrets are base64
+ * and at least 32 bytes.
+ */
+@Service
+@ConditionalOnProperty(name = "auth.token.enabled", havingValue = "true")
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    // Mac instances are not thread-safe; one per thread, keyed on each use
+    private static final ThreadLocal<Mac> MACS = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final SecretKeySpec signingKey;
+    private final List<SecretKeySpec> verificationKeys;
+    private final Duration ttl;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TokenService(@Value("${auth.token.secret:}") String secret,
+                        @Value("${auth.token.previous-secrets:}") List<String> previousSecrets,
+                        @Value("${auth.token.ttl:PT1H}") Duration ttl,
+                        ObjectMapper objectMapper) {
+        this.signingKey = key(secret);
+        this.verificationKeys = new ArrayList<>();
+        this.verificationKeys.add(signingKey);
+        for (String previousSecret : previousSecrets) {
+            if (!previousSecret.isBlank()) {
+                verificationKeys.add(key(previousSecret));
+            }
+        }
+        this.ttl = ttl;
+        this.objectMapper = objectMapper;
+    }
+
+    private static SecretKeySpec key(String secret) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(secret.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("auth.token secrets must be base64", e);
+        }
+        if (bytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("auth.token secrets must be at least " + MIN_SECRET_BYTES + " bytes");
+        }
+        return new SecretKeySpec(bytes, ALGORITHM);
+    }
+
+    public TokenClaims issue(String userId, String email) {
+        long now = Instant.now().getEpochSecond();
+        return new TokenClaims(UUID.randomUUID().toString(), userId, email, now, now + ttl.toSeconds());
+    }
+
+    public String encode(TokenClaims claims) {
+        try {
+            String signedPart = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return signedPart + "." + ENCODER.encodeToString(sign(signingKey, signedPart));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Claims of a token signed with one of our keys and not yet expired; IllegalArgumentException otherwise
+    public TokenClaims verify(String token) {
+        int payloadStart = token.indexOf('.');
+        int signatureStart = token.lastIndexOf('.');
+        if (payloadStart <= 0 || signatureStart == payloadStart || !HEADER.equals(token.substring(0, payloadStart))) {
+            throw new IllegalArgumentException("Malformed token");
+        }
+        String signedPart = token.substring(0, signatureStart);
+        byte[] signature;
+        try {
+            signature = DECODER.decode(token.substring(signatureStart + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed token", e);
+        }
+        if (verificationKeys.stream().noneMatch(key -> MessageDigest.isEqual(sign(key, signedPart), signature))) {
+            throw new IllegalArgumentException("Invalid token signature");
+        }
+
+        TokenClaims claims;
+        try {
+            claims = objectMapper.readValue(DECODER.decode(token.substring(payloadStart + 1, signatureStart)), TokenClaims.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed token", e);
+        }
+        if (claims.jti() == null || claims.sub() == null) {
+            throw new IllegalArgumentException("Malformed token");
+        }
+        if (claims.exp() <= Instant.now().getEpochSecond()) {
+            throw new IllegalArgumentException("Token has expired");
+        }
+        return claims;
+    }
+
+    private static byte[] sign(SecretKeySpec key, String signedPart) {
+        Mac mac = MACS.get();
+        try {
+            mac.init(key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        return mac.doFinal(signedPart.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -1,20 +1,39 @@
 package com.example.todo.functions.characterMaster.controller;
 
 
+import com.example.todo.common.cache.CacheStats;
+import com.example.todo.common.dto.CursorPage;
+import com.example.todo.common.dto.SpriteSheet;
+import com.example.todo.common.service.SpriteSheetService;
+import com.example.todo.functions.characterMaster.dto.BulkCharacterResult;
 import com.example.todo.functions.characterMaster.dto.ReadCharacter;
+import com.example.todo.functions.characterMaster.dto.ReadCharacterSummary;
 import com.example.todo.functions.characterMaster.dto.CreateCharacter;
 import com.example.todo.functions.characterMaster.dto.UpdateCharacter;
 import com.example.todo.functions.characterMaster.service.CharacterService;
 import com.example.todo.functions.characterMaster.dto.FilterCharacter;
 import com.example.todo.functions.characterMaster.enums.CharacterType;
 import com.example.todo.functions.characterMaster.enums.CharacterClassification;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.example.todo.common.io.NdjsonReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.util.Arrays;
 import java.util.List;
 
@@ -22,49 +41,130 @@ import java.util.List;
 @RequestMapping("/api/v1/characters")
 public class CharacterController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // Flush the export stream every this many characters
+    private static final int EXPORT_FLUSH_INTERVAL = 100;
+
+    // The enums only change with a deployment, so their ETags are fixed
+    private static final String TYPES_ETAG = enumEtag(CharacterType.values());
+    private static final String CLASSIFICATIONS_ETAG = enumEtag(CharacterClassification.values());
+
     private final CharacterService characterService;
+    private final SpriteSheetService spriteSheetService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public CharacterController(CharacterService characterService) {
+    public CharacterController(CharacterService characterService, SpriteSheetService spriteSheetService, ObjectMapper objectMapper) {
         this.characterService = characterService;
+        this.spriteSheetService = spriteSheetService;
+        this.objectMapper = objectMapper;
     }
 
     // Endpoint to retrieve all characters
     @GetMapping
-    public ResponseEntity<List<ReadCharacter>> getAllCharacters() {
+    public ResponseEntity<List<ReadCharacterSummary>> getAllCharacters(ServletWebRequest webRequest) {
         try {
-            List<ReadCharacter> characters = characterService.getAllCharacters();
+            if (webRequest.checkNotModified(listEtag(webRequest))) {
+                return null;
+            }
+            List<ReadCharacterSummary> characters = characterService.getAllCharacters();
             return new  ResponseEntity<>(characters, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Endpoint to export the full catalog as a stream, either NDJSON (default) or a chunked JSON array
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCharacters(@RequestParam(defaultValue = "ndjson") String format) {
+        boolean ndjson = !"json".equalsIgnoreCase(format);
+
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            int[] written = {0};
+            characterService.streamAllCharacters(character -> {
+                try {
+                    generator.writeObject(character);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                    if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.close();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     // Endpoint to retrieve all characters with pagination
+    // Pass pagination=cursor (or a cursor from a previous response) for keyset pagination without a total count
     //try catch to be added later
     @GetMapping("/paginated")
-    public ResponseEntity<Page<ReadCharacter>> getAllCharactersPaginated(
+    public ResponseEntity<?> getAllCharactersPaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDirection) {
-        Page<ReadCharacter> characterPage = characterService.getAllCharactersPaginated(page, size, sortBy, sortDirection);
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = "offset") String pagination,
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest webRequest) {
+        if (webRequest.checkNotModified(listEtag(webRequest))) {
+            return null;
+        }
+        if (isCursorMode(pagination, cursor)) {
+            try {
+                CursorPage<ReadCharacterSummary> characterSlice = characterService.getAllCharactersByCursor(cursor, size, sortBy, sortDirection);
+                return new ResponseEntity<>(characterSlice, HttpStatus.OK);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
+        Page<ReadCharacterSummary> characterPage = characterService.getAllCharactersPaginated(page, size, sortBy, sortDirection);
         return new ResponseEntity<>(characterPage, HttpStatus.OK);
     }
 
     // Endpoint for advanced search and filtering
+    // Pass pagination=cursor (or a cursor from a previous response) for keyset pagination without a total count
     @GetMapping("/search")
-    public ResponseEntity<Page<ReadCharacter>> searchAndFilterCharacters(
+    public ResponseEntity<?> searchAndFilterCharacters(
             @RequestParam(required = false) String searchTerm,
             @ModelAttribute FilterCharacter filter,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDirection) {
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = "offset") String pagination,
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest webRequest) {
         try {
-            Page<ReadCharacter> characterPage = characterService.searchAndFilterCharacters(
+            if (webRequest.checkNotModified(listEtag(webRequest))) {
+                return null;
+            }
+            if (isCursorMode(pagination, cursor)) {
+                CursorPage<ReadCharacterSummary> characterSlice = characterService.searchAndFilterCharactersByCursor(
+                        searchTerm, filter, cursor, size, sortBy, sortDirection);
+                return new ResponseEntity<>(characterSlice, HttpStatus.OK);
+            }
+            Page<ReadCharacterSummary> characterPage = characterService.searchAndFilterCharacters(
                     searchTerm, filter, page, size, sortBy, sortDirection);
             return new ResponseEntity<>(characterPage, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
@@ -72,8 +172,11 @@ public class CharacterController {
 
     // Endpoint to get all character types for filtering
     @GetMapping("/types")
-    public ResponseEntity<List<CharacterType>> getAllCharacterTypes() {
+    public ResponseEntity<List<CharacterType>> getAllCharacterTypes(WebRequest webRequest) {
         try {
+            if (webRequest.checkNotModified(TYPES_ETAG)) {
+                return null;
+            }
             List<CharacterType> types = Arrays.asList(CharacterType.values());
             return new ResponseEntity<>(types, HttpStatus.OK);
         } catch (Exception e) {
@@ -83,8 +186,11 @@ public class CharacterController {
 
     // Endpoint to get all character classifications for filtering
     @GetMapping("/classifications")
-    public ResponseEntity<List<CharacterClassification>> getAllCharacterClassifications() {
+    public ResponseEntity<List<CharacterClassification>> getAllCharacterClassifications(WebRequest webRequest) {
         try {
+            if (webRequest.checkNotModified(CLASSIFICATIONS_ETAG)) {
+                return null;
+            }
             List<CharacterClassification> classifications = Arrays.asList(CharacterClassification.values());
             return new ResponseEntity<>(classifications, HttpStatus.OK);
         } catch (Exception e) {
@@ -92,11 +198,51 @@ public class CharacterController {
         }
     }
 
+    // Endpoint to inspect the character cache counters
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        CacheStats stats = characterService.getCacheStats();
+        if (stats == null) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
+    // Endpoint to fetch the sprites of several characters in one response, e.g. a page of cards.
+    // SVG sprites come back as a <symbol> sheet with ids "sprite-<file name without extension>".
+    @GetMapping("/sprites")
+    public ResponseEntity<byte[]> getCharacterSprites(@RequestParam List<Long> ids, WebRequest webRequest) {
+        try {
+            List<String> fileNames = characterService.getSpriteFileNames(ids);
+            if (fileNames.isEmpty()) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            List<String> normalized = spriteSheetService.normalize(fileNames);
+            if (webRequest.checkNotModified(spriteSheetService.getETag(normalized))) {
+                return null;
+            }
+            SpriteSheet sheet = spriteSheetService.getSheet(normalized);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(sheet.getContentType()))
+                    .body(sheet.getContent());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     // Endpoint to retrieve a character by ID
     @GetMapping("/{id}")
-    public ResponseEntity<ReadCharacter> getCharacterById(@PathVariable Long id) {
+    public ResponseEntity<ReadCharacter> getCharacterById(@PathVariable Long id, WebRequest webRequest) {
         try {
+            // One lookup (a cache hit when the character cache is on) serves both the validators and
+            // the body; returning null after checkNotModified lets Spring send the 304 it prepared
             ReadCharacter character = characterService.getCharacterById(id);
+            Timestamp lastModified = character.getUpdatedAt();
+            if (lastModified != null && webRequest.checkNotModified(characterEtag(id, lastModified), lastModified.getTime())) {
+                return null;
+            }
             return new ResponseEntity<>(character, HttpStatus.OK);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -133,6 +279,50 @@ public class CharacterController {
         }
     }
 
+    // Endpoint to create many characters at once from a JSON array
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkCharacterResult>> bulkCreateCharacters(@RequestBody List<CreateCharacter> createRequests) {
+        try {
+            List<BulkCharacterResult> results = characterService.bulkCreateCharacters(createRequests.iterator());
+            return new ResponseEntity<>(results, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Endpoint to create many characters at once from an NDJSON stream, one CreateCharacter per line
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<List<BulkCharacterResult>> bulkCreateCharactersStream(InputStream body) {
+        try (NdjsonReader<CreateCharacter> createRequests = new NdjsonReader<>(body, objectMapper.readerFor(CreateCharacter.class))) {
+            List<BulkCharacterResult> results = characterService.bulkCreateCharacters(createRequests);
+            return new ResponseEntity<>(results, HttpStatus.OK);
+        } catch (IOException | RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Endpoint to update many characters at once from a JSON array, each item carrying its id
+    @PutMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BulkCharacterResult>> bulkUpdateCharacters(@RequestBody List<UpdateCharacter> updateRequests) {
+        try {
+            List<BulkCharacterResult> results = characterService.bulkUpdateCharacters(updateRequests.iterator());
+            return new ResponseEntity<>(results, HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Endpoint to update many characters at once from an NDJSON stream, one UpdateCharacter per line
+    @PutMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<List<BulkCharacterResult>> bulkUpdateCharactersStream(InputStream body) {
+        try (NdjsonReader<UpdateCharacter> updateRequests = new NdjsonReader<>(body, objectMapper.readerFor(UpdateCharacter.class))) {
+            List<BulkCharacterResult> results = characterService.bulkUpdateCharacters(updateRequests);
+            return new ResponseEntity<>(results, HttpStatus.OK);
+        } catch (IOException | RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // Endpoint to update a character's sprite image
     @PostMapping("/{id}/sprite")
     public ResponseEntity<ReadCharacter> updateCharacterSprite(
@@ -141,6 +331,9 @@ public class CharacterController {
         try {
             ReadCharacter updatedCharacter = characterService.updateCharacterSprite(id, file);
             return new ResponseEntity<>(updatedCharacter, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            // File content does not match its extension
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         } catch (Exception e) {
@@ -187,4 +380,25 @@ public class CharacterController {
         }
     }
 
+    // Strong ETag of a single character, derived from its id and modification time
+    private static String characterEtag(Long id, Timestamp lastModified) {
+        return "\"" + id + "-" + lastModified.getTime() + "." + lastModified.getNanos() + "\"";
+    }
+
+    // Weak ETag of a list or search response: the same catalog version and query give the same body.
+    // Computed without running the list query itself.
+    private String listEtag(ServletWebRequest webRequest) {
+        String key = characterService.getCatalogVersion() + "|" + webRequest.getRequest().getRequestURI()
+                + "?" + webRequest.getRequest().getQueryString();
+        return "W/\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static String enumEtag(Enum<?>[] values) {
+        return "\"" + DigestUtils.md5DigestAsHex(Arrays.toString(values).getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private boolean isCursorMode(String pagination, String cursor) {
+        return "cursor".equalsIgnoreCase(pagination) || cursor != null;
+    }
+
 }
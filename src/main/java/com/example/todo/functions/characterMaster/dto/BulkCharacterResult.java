@@ -0,0 +1,23 @@
+package com.example.todo.functions.characterMaster.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one item of a bulk create/update request, index is the item's position in the request
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCharacterResult {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        FAILED
+    }
+
+    private int index;
+    private Long id;
+    private Status status;
+    private String error;
+}
@@ -2,6 +2,7 @@ package com.example.todo.functions.characterMaster.dto;
 
 import com.example.todo.functions.characterMaster.enums.CharacterClassification;
 import com.example.todo.functions.characterMaster.enums.CharacterType;
+import com.example.todo.functions.characterMaster.enums.NameSearchMode;
 import lombok.Data;
 
 @Data
@@ -9,6 +10,9 @@ public class FilterCharacter {
 
     private String name;
 
+    // How searchTerm is matched against the name, CONTAINS when not given
+    private NameSearchMode searchMode;
+
     private CharacterType type;
     private CharacterClassification classification;
 
@@ -0,0 +1,34 @@
+package com.example.todo.functions.characterMaster.dto;
+
+import com.example.todo.functions.characterMaster.enums.CharacterClassification;
+import com.example.todo.functions.characterMaster.enums.CharacterType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+// ReadCharacter without the description, for list and search results;
+// the constructor order is used by CharacterSummaryRepositoryImpl's select
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadCharacterSummary {
+    private Long id;
+
+    private CharacterType type;
+    private CharacterClassification classification;
+
+    private String name;
+    private String spritePath;
+
+    private Integer baseHealth;
+    private Integer baseAttack;
+    private Integer baseMagic;
+    private Integer basePhysicalDefense;
+    private Integer baseMagicalDefense;
+    private Integer baseSpeed;
+
+    private Timestamp createdAt;
+    private Timestamp updatedAt;
+}
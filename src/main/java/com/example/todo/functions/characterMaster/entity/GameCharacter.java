@@ -7,18 +7,39 @@ import jakarta.persistence.Column;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.sql.Timestamp;
 
 @Entity
 @Data
-@Table(name = "character_classes")
+// Every list query filters is_deleted first, so each index leads with it; InnoDB appends the
+// primary key to secondary indexes, which makes them (is_deleted, column, id) for keyset paging.
+// CharacterQueryPlanTest checks that the query shapes in CharacterSpecification use them.
+@Table(name = "character_classes", indexes = {
+        @Index(name = "idx_character_deleted", columnList = "is_deleted"),
+        @Index(name = "idx_character_deleted_type", columnList = "is_deleted, type, classification"),
+        @Index(name = "idx_character_deleted_classification", columnList = "is_deleted, classification"),
+        @Index(name = "idx_character_deleted_name", columnList = "is_deleted, name"),
+        @Index(name = "idx_character_deleted_health", columnList = "is_deleted, base_health"),
+        @Index(name = "idx_character_deleted_attack", columnList = "is_deleted, base_attack"),
+        @Index(name = "idx_character_deleted_magic", columnList = "is_deleted, base_magic"),
+        @Index(name = "idx_character_deleted_physical_defense", columnList = "is_deleted, base_physical_defense"),
+        @Index(name = "idx_character_deleted_magical_defense", columnList = "is_deleted, base_magical_defense"),
+        @Index(name = "idx_character_deleted_speed", columnList = "is_deleted, base_speed"),
+        @Index(name = "idx_character_deleted_created", columnList = "is_deleted, created_at"),
+        @Index(name = "idx_character_updated", columnList = "updated_at"),
+        @Index(name = "idx_character_sprite_path", columnList = "sprite_path"),
+        @Index(name = "idx_character_sprite_file_name", columnList = "sprite_file_name")
+})
 public class GameCharacter {
 
     @Id
@@ -42,6 +63,13 @@ public class GameCharacter {
     @Column(name = "sprite_path", length = 255)
     private String spritePath;
 
+    // Stored file behind spritePath (its last path segment), kept in step by setSpritePath so file
+    // reference checks are indexed equality lookups whatever URL form the client stored. Null on
+    // rows written before the column existed until db/character-sprite-file-name-migration.sql runs.
+    @Setter(AccessLevel.NONE)
+    @Column(name = "sprite_file_name", length = 255)
+    private String spriteFileName;
+
 
     //base stats
     @Column(name = "base_health", columnDefinition = "INT DEFAULT 100")
@@ -75,5 +103,18 @@ public class GameCharacter {
     @Column(name = "updated_at")
     private Timestamp updatedAt;
 
+    public void setSpritePath(String spritePath) {
+        this.spritePath = spritePath;
+        this.spriteFileName = spriteFileNameOf(spritePath);
+    }
+
+    // The stored file name behind a sprite URL, null when there is no sprite
+    public static String spriteFileNameOf(String spritePath) {
+        if (spritePath == null || spritePath.isEmpty()) {
+            return null;
+        }
+        return spritePath.substring(spritePath.lastIndexOf("/") + 1);
+    }
+
 
 }
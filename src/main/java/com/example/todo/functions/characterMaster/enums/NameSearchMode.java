@@ -0,0 +1,7 @@
+package com.example.todo.functions.characterMaster.enums;
+
+public enum NameSearchMode {
+    CONTAINS,
+    PREFIX,
+    FUZZY
+}
@@ -0,0 +1,116 @@
+package com.example.todo.functions.characterMaster.index;
+
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Base of the in-process character indexes: handles the enabled flag, locking, and keeping
+ * writes made while CharacterIndexLoader streams a rebuild from being overwritten by older rows.
+ *
+ * Writes are only seen by the local instance, so indexes should only be enabled where this
+ * instance is the sole writer of character_classes.
+ */
+public abstract class CharacterIndex {
+
+    protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final boolean enabled;
+
+    // Ids written through upsert/remove while a rebuild is streaming, guarded by lock
+    private Set<Long> changedDuringRebuild;
+
+    private volatile boolean ready;
+
+    protected CharacterIndex(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Whether the index is fully loaded and can answer queries
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void beginRebuild() {
+        ready = false;
+        lock.writeLock().lock();
+        try {
+            clear();
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Add a row read by the rebuild, unless it was written since the rebuild started
+    public void load(GameCharacter character) {
+        lock.writeLock().lock();
+        try {
+            if (!changedDuringRebuild.contains(character.getId())) {
+                store(character);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+    }
+
+    // Index a created or updated character, or drop it if it is now deleted
+    public void upsert(GameCharacter character) {
+        if (!enabled) {
+            return;
+        }
+        if (Boolean.TRUE.equals(character.getIsDeleted())) {
+            remove(character.getId());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(character.getId());
+            }
+            store(character);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(id);
+            }
+            erase(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called with the write lock held
+    protected abstract void clear();
+
+    // Called with the write lock held; replaces any previous entry for the same id
+    protected abstract void store(GameCharacter character);
+
+    // Called with the write lock held
+    protected abstract void erase(Long id);
+}
@@ -0,0 +1,58 @@
+package com.example.todo.functions.characterMaster.index;
+
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.repository.CharacterRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Fills every enabled CharacterIndex from a single streaming pass over character_classes
+@Component
+public class CharacterIndexLoader {
+
+    private final List<CharacterIndex> indexes;
+    private final CharacterRepository characterRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public CharacterIndexLoader(List<CharacterIndex> indexes,
+                                CharacterRepository characterRepository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager) {
+        this.indexes = indexes;
+        this.characterRepository = characterRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<CharacterIndex> enabledIndexes = indexes.stream()
+                .filter(CharacterIndex::isEnabled)
+                .collect(Collectors.toList());
+        if (enabledIndexes.isEmpty()) {
+            return;
+        }
+
+        enabledIndexes.forEach(CharacterIndex::beginRebuild);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<GameCharacter> characters = characterRepository.streamByIsDeletedFalse()) {
+                characters.forEach(character -> {
+                    enabledIndexes.forEach(index -> index.load(character));
+                    entityManager.detach(character);
+                });
+            }
+        });
+        enabledIndexes.forEach(CharacterIndex::finishRebuild);
+    }
+}
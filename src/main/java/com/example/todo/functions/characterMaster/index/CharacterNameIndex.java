@@ -0,0 +1,237 @@
+package com.example.todo.functions.characterMaster.index;
+
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.NameSearchMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-process trigram index of character names, used to narrow the ids matching a search term
+ * before the rest of the filter runs instead of scanning lower(name) LIKE '%term%'.
+ *
+ * Names are lower-cased and padded pg_trgm style ("  name "), and every distinct trigram maps to
+ * a posting list of rows. Rows are append-only, so posting lists stay sorted and updates simply
+ * retire the old row; the lists are compacted once retired rows outnumber live ones. Candidates
+ * from the posting lists are always verified against the stored name, so stale postings are harmless.
+ */
+@Component
+public class CharacterNameIndex extends CharacterIndex {
+
+    private static final int GRAM = 3;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Do not bother compacting tiny indexes
+    private static final int MIN_RETIRED_ROWS_TO_COMPACT = 1024;
+
+    private final double fuzzyThreshold;
+
+    // All guarded by lock; a retired row has a null name
+    private String[] names = new String[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] trigramCounts = new int[INITIAL_CAPACITY];
+    private int rowCount;
+    private int retiredRows;
+    private final Map<Long, Integer> rowById = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+
+    @Autowired
+    public CharacterNameIndex(@Value("${character.name-index.enabled:false}") boolean enabled,
+                              @Value("${character.name-index.fuzzy-threshold:0.3}") double fuzzyThreshold) {
+        super(enabled);
+        this.fuzzyThreshold = fuzzyThreshold;
+    }
+
+    // Ids of the characters whose name matches the term in the given mode
+    public Set<Long> find(String term, NameSearchMode mode) {
+        String query = term.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            return switch (mode == null ? NameSearchMode.CONTAINS : mode) {
+                case CONTAINS -> findContaining(query);
+                case PREFIX -> findStartingWith(query);
+                case FUZZY -> findSimilar(query);
+            };
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> findContaining(String query) {
+        Set<Long> matches = new LinkedHashSet<>();
+        if (query.length() < GRAM) {
+            // No complete trigram to look up; a scan of the in-memory names is still cheaper than SQL
+            for (int row = 0; row < rowCount; row++) {
+                if (names[row] != null && names[row].contains(query)) {
+                    matches.add(ids[row]);
+                }
+            }
+            return matches;
+        }
+
+        PostingList candidates = rarestPosting(trigrams(query));
+        if (candidates == null) {
+            return matches;
+        }
+        for (int i = 0; i < candidates.size; i++) {
+            int row = candidates.rows[i];
+            if (names[row] != null && names[row].contains(query)) {
+                matches.add(ids[row]);
+            }
+        }
+        return matches;
+    }
+
+    private Set<Long> findStartingWith(String query) {
+        Set<Long> matches = new LinkedHashSet<>();
+        // Leading padding makes the first trigrams anchor the match at the start of the name
+        PostingList candidates = rarestPosting(trigrams("  " + query));
+        if (candidates == null) {
+            return matches;
+        }
+        for (int i = 0; i < candidates.size; i++) {
+            int row = candidates.rows[i];
+            if (names[row] != null && names[row].startsWith(query)) {
+                matches.add(ids[row]);
+            }
+        }
+        return matches;
+    }
+
+    // Typo-tolerant match: trigram similarity (shared / union of distinct trigrams) at least the threshold
+    private Set<Long> findSimilar(String query) {
+        Set<String> queryTrigrams = trigrams(pad(query));
+        Map<Integer, Integer> sharedByRow = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            PostingList posting = postings.get(trigram);
+            if (posting == null) {
+                continue;
+            }
+            for (int i = 0; i < posting.size; i++) {
+                if (names[posting.rows[i]] != null) {
+                    sharedByRow.merge(posting.rows[i], 1, Integer::sum);
+                }
+            }
+        }
+
+        Set<Long> matches = new LinkedHashSet<>();
+        sharedByRow.forEach((row, shared) -> {
+            double similarity = (double) shared / (queryTrigrams.size() + trigramCounts[row] - shared);
+            if (similarity >= fuzzyThreshold) {
+                matches.add(ids[row]);
+            }
+        });
+        return matches;
+    }
+
+    // Shortest posting list among the trigrams, or null when one of them matches nothing
+    private PostingList rarestPosting(Set<String> trigrams) {
+        PostingList rarest = null;
+        for (String trigram : trigrams) {
+            PostingList posting = postings.get(trigram);
+            if (posting == null) {
+                return null;
+            }
+            if (rarest == null || posting.size < rarest.size) {
+                rarest = posting;
+            }
+        }
+        return rarest;
+    }
+
+    @Override
+    protected void clear() {
+        names = new String[INITIAL_CAPACITY];
+        ids = new long[INITIAL_CAPACITY];
+        trigramCounts = new int[INITIAL_CAPACITY];
+        rowCount = 0;
+        retiredRows = 0;
+        rowById.clear();
+        postings.clear();
+    }
+
+    @Override
+    protected void store(GameCharacter character) {
+        erase(character.getId());
+        if (character.getName() != null) {
+            append(character.getId(), character.getName().toLowerCase(Locale.ROOT));
+        }
+        if (retiredRows >= MIN_RETIRED_ROWS_TO_COMPACT && retiredRows > rowCount - retiredRows) {
+            compact();
+        }
+    }
+
+    @Override
+    protected void erase(Long id) {
+        Integer row = rowById.remove(id);
+        if (row != null) {
+            names[row] = null;
+            retiredRows++;
+        }
+    }
+
+    private void append(long id, String name) {
+        if (rowCount == names.length) {
+            int newCapacity = names.length * 2;
+            names = Arrays.copyOf(names, newCapacity);
+            ids = Arrays.copyOf(ids, newCapacity);
+            trigramCounts = Arrays.copyOf(trigramCounts, newCapacity);
+        }
+        int row = rowCount++;
+        names[row] = name;
+        ids[row] = id;
+        rowById.put(id, row);
+
+        Set<String> nameTrigrams = trigrams(pad(name));
+        trigramCounts[row] = nameTrigrams.size();
+        for (String trigram : nameTrigrams) {
+            postings.computeIfAbsent(trigram, key -> new PostingList()).add(row);
+        }
+    }
+
+    // Rebuild rows and posting lists from the live rows only
+    private void compact() {
+        String[] liveNames = Arrays.copyOf(names, rowCount);
+        long[] liveIds = Arrays.copyOf(ids, rowCount);
+        int liveRowCount = rowCount;
+        clear();
+        for (int row = 0; row < liveRowCount; row++) {
+            if (liveNames[row] != null) {
+                append(liveIds[row], liveNames[row]);
+            }
+        }
+    }
+
+    private static String pad(String name) {
+        return "  " + name + " ";
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + GRAM));
+        }
+        return trigrams;
+    }
+
+    // Growable sorted list of row numbers
+    private static final class PostingList {
+
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.todo.functions.characterMaster.index;
+
+import com.example.todo.functions.characterMaster.dto.FilterCharacter;
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.CharacterClassification;
+import com.example.todo.functions.characterMaster.enums.CharacterType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process columnar index of the non-deleted characters' stats, used to answer FilterCharacter
+ * range queries without MySQL.
+ *
+ * Each base stat is a primitive int column and each type/classification value a bitset over the
+ * same row numbers; a query intersects the enum bitsets and then narrows the survivors column by
+ * column. Only the ids of the requested page are returned, the caller hydrates them.
+ */
+@Component
+public class CharacterStatIndex extends CharacterIndex {
+
+    // Stored in a column when the stat is null; never matches a range, sorts like SQL NULL
+    private static final int NULL_STAT = Integer.MIN_VALUE;
+
+    private static final List<String> STAT_FIELDS = List.of(
+            "baseHealth", "baseAttack", "baseMagic", "basePhysicalDefense", "baseMagicalDefense", "baseSpeed");
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Row-oriented storage, all guarded by lock
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private final int[][] statColumns = new int[STAT_FIELDS.size()][INITIAL_CAPACITY];
+    private final BitSet live = new BitSet();
+    private final BitSet[] rowsByType = newBitSets(CharacterType.values().length);
+    private final BitSet[] rowsByClassification = newBitSets(CharacterClassification.values().length);
+    private final Map<Long, Integer> rowById = new HashMap<>();
+
+    @Autowired
+    public CharacterStatIndex(@Value("${character.stat-index.enabled:false}") boolean enabled) {
+        super(enabled);
+    }
+
+    // Result of an index search: ids of the requested page in order, and the total number of matches
+    public record Result(List<Long> ids, long total) {
+    }
+
+    // Whether the index is loaded and able to answer a search sorted by the given field
+    public boolean canServe(String sortBy) {
+        return isReady() && ("id".equals(sortBy) || STAT_FIELDS.contains(sortBy));
+    }
+
+    // Evaluate the filter and return one page of matching ids ordered by sortBy, then id.
+    // candidateIds, when not null, restricts the search to those characters (e.g. name index matches).
+    public Result search(FilterCharacter filter, Collection<Long> candidateIds, int page, int size, String sortBy, boolean descending) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = match(filter, candidateIds);
+            int[] rows = matches.stream().toArray();
+            long from = (long) page * size;
+            if (from >= rows.length) {
+                return new Result(List.of(), rows.length);
+            }
+            int to = (int) Math.min(from + size, rows.length);
+
+            List<Long> pageIds = new ArrayList<>(to - (int) from);
+            if ("id".equals(sortBy)) {
+                long[] matchingIds = new long[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    matchingIds[i] = ids[rows[i]];
+                }
+                Arrays.sort(matchingIds);
+                for (int i = (int) from; i < to; i++) {
+                    pageIds.add(matchingIds[descending ? matchingIds.length - 1 - i : i]);
+                }
+            } else {
+                // Pack (sort key, position in rows) into one primitive long so a plain sort orders by key
+                int[] column = statColumns[STAT_FIELDS.indexOf(sortBy)];
+                long[] packed = new long[rows.length];
+                for (int i = 0; i < rows.length; i++) {
+                    int key = descending ? ~column[rows[i]] : column[rows[i]];
+                    packed[i] = ((long) key << 32) | i;
+                }
+                Arrays.sort(packed);
+
+                // Break ties by id, only for the runs of equal keys that overlap the requested page
+                int runStart = (int) from;
+                while (runStart > 0 && sortKey(packed[runStart - 1]) == sortKey(packed[(int) from])) {
+                    runStart--;
+                }
+                while (runStart < to) {
+                    int runEnd = runStart;
+                    while (runEnd < packed.length && sortKey(packed[runEnd]) == sortKey(packed[runStart])) {
+                        runEnd++;
+                    }
+                    long[] runIds = new long[runEnd - runStart];
+                    for (int i = runStart; i < runEnd; i++) {
+                        runIds[i - runStart] = ids[rows[(int) packed[i]]];
+                    }
+                    Arrays.sort(runIds);
+                    for (int i = Math.max(runStart, (int) from); i < Math.min(runEnd, to); i++) {
+                        int offset = i - runStart;
+                        pageIds.add(runIds[descending ? runIds.length - 1 - offset : offset]);
+                    }
+                    runStart = runEnd;
+                }
+            }
+            return new Result(pageIds, rows.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet match(FilterCharacter filter, Collection<Long> candidateIds) {
+        BitSet matches = (BitSet) live.clone();
+        if (candidateIds != null) {
+            BitSet candidates = new BitSet();
+            for (Long id : candidateIds) {
+                Integer row = rowById.get(id);
+                if (row != null) {
+                    candidates.set(row);
+                }
+            }
+            matches.and(candidates);
+        }
+        if (filter.getType() != null) {
+            matches.and(rowsByType[filter.getType().ordinal()]);
+        }
+        if (filter.getClassification() != null) {
+            matches.and(rowsByClassification[filter.getClassification().ordinal()]);
+        }
+
+        Integer[][] bounds = {
+                {filter.getMinBaseHealth(), filter.getMaxBaseHealth()},
+                {filter.getMinBaseAttack(), filter.getMaxBaseAttack()},
+                {filter.getMinBaseMagic(), filter.getMaxBaseMagic()},
+                {filter.getMinBasePhysicalDefense(), filter.getMaxBasePhysicalDefense()},
+                {filter.getMinBaseMagicalDefense(), filter.getMaxBaseMagicalDefense()},
+                {filter.getMinBaseSpeed(), filter.getMaxBaseSpeed()}
+        };
+        for (int stat = 0; stat < bounds.length; stat++) {
+            if (bounds[stat][0] == null && bounds[stat][1] == null) {
+                continue;
+            }
+            int min = bounds[stat][0] == null ? NULL_STAT + 1 : bounds[stat][0];
+            int max = bounds[stat][1] == null ? Integer.MAX_VALUE : bounds[stat][1];
+            int[] column = statColumns[stat];
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                int value = column[row];
+                if (value == NULL_STAT || value < min || value > max) {
+                    matches.clear(row);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static int sortKey(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    @Override
+    protected void clear() {
+        live.clear();
+        rowById.clear();
+        Arrays.stream(rowsByType).forEach(BitSet::clear);
+        Arrays.stream(rowsByClassification).forEach(BitSet::clear);
+    }
+
+    @Override
+    protected void store(GameCharacter character) {
+        Integer row = rowById.get(character.getId());
+        if (row == null) {
+            row = live.nextClearBit(0);
+            ensureCapacity(row + 1);
+            rowById.put(character.getId(), row);
+        } else {
+            clearRow(row);
+        }
+
+        ids[row] = character.getId();
+        Integer[] stats = {
+                character.getBaseHealth(),
+                character.getBaseAttack(),
+                character.getBaseMagic(),
+                character.getBasePhysicalDefense(),
+                character.getBaseMagicalDefense(),
+                character.getBaseSpeed()
+        };
+        for (int stat = 0; stat < stats.length; stat++) {
+            statColumns[stat][row] = stats[stat] == null ? NULL_STAT : stats[stat];
+        }
+        if (character.getType() != null) {
+            rowsByType[character.getType().ordinal()].set(row);
+        }
+        if (character.getClassification() != null) {
+            rowsByClassification[character.getClassification().ordinal()].set(row);
+        }
+        live.set(row);
+    }
+
+    @Override
+    protected void erase(Long id) {
+        Integer row = rowById.remove(id);
+        if (row != null) {
+            clearRow(row);
+        }
+    }
+
+    private void clearRow(int row) {
+        live.clear(row);
+        for (BitSet rows : rowsByType) {
+            rows.clear(row);
+        }
+        for (BitSet rows : rowsByClassification) {
+            rows.clear(row);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        for (int stat = 0; stat < statColumns.length; stat++) {
+            statColumns[stat] = Arrays.copyOf(statColumns[stat], newCapacity);
+        }
+    }
+
+    private static BitSet[] newBitSets(int count) {
+        BitSet[] bitSets = new BitSet[count];
+        for (int i = 0; i < count; i++) {
+            bitSets[i] = new BitSet();
+        }
+        return bitSets;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.todo.functions.characterMaster.mapper;
+
+import com.example.todo.functions.characterMaster.dto.CreateCharacter;
+import com.example.todo.functions.characterMaster.dto.ReadCharacter;
+import com.example.todo.functions.characterMaster.dto.UpdateCharacter;
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+
+/**
+ * Field-by-field mapping between GameCharacter and its DTOs, replacing reflective
+ * BeanUtils.copyProperties on the request path. Semantics match the copies it replaces: every
+ * property shared by both sides is copied, nulls included, except id and isDeleted on update.
+ *
+ * CharacterMapperTest checks the result against BeanUtils, so a field added to the entity or a
+ * DTO without being mapped here is caught.
+ */
+public final class CharacterMapper {
+
+    private CharacterMapper() {
+    }
+
+    public static ReadCharacter toReadCharacter(GameCharacter character) {
+        ReadCharacter dto = new ReadCharacter();
+        dto.setId(character.getId());
+        dto.setType(character.getType());
+        dto.setClassification(character.getClassification());
+        dto.setName(character.getName());
+        dto.setDescription(character.getDescription());
+        dto.setSpritePath(character.getSpritePath());
+        dto.setBaseHealth(character.getBaseHealth());
+        dto.setBaseAttack(character.getBaseAttack());
+        dto.setBaseMagic(character.getBaseMagic());
+        dto.setBasePhysicalDefense(character.getBasePhysicalDefense());
+        dto.setBaseMagicalDefense(character.getBaseMagicalDefense());
+        dto.setBaseSpeed(character.getBaseSpeed());
+        dto.setCreatedAt(character.getCreatedAt());
+        dto.setUpdatedAt(character.getUpdatedAt());
+        return dto;
+    }
+
+    public static GameCharacter toEntity(CreateCharacter createRequest) {
+        GameCharacter character = new GameCharacter();
+        character.setType(createRequest.getType());
+        character.setClassification(createRequest.getClassification());
+        character.setName(createRequest.getName());
+        character.setDescription(createRequest.getDescription());
+        character.setSpritePath(createRequest.getSpritePath());
+        character.setBaseHealth(createRequest.getBaseHealth());
+        character.setBaseAttack(createRequest.getBaseAttack());
+        character.setBaseMagic(createRequest.getBaseMagic());
+        character.setBasePhysicalDefense(createRequest.getBasePhysicalDefense());
+        character.setBaseMagicalDefense(createRequest.getBaseMagicalDefense());
+        character.setBaseSpeed(createRequest.getBaseSpeed());
+        return character;
+    }
+
+    // Copy an update onto an existing character, leaving id and isDeleted untouched
+    public static void applyUpdate(UpdateCharacter updateRequest, GameCharacter character) {
+        character.setType(updateRequest.getType());
+        character.setClassification(updateRequest.getClassification());
+        character.setName(updateRequest.getName());
+        character.setDescription(updateRequest.getDescription());
+        character.setSpritePath(updateRequest.getSpritePath());
+        character.setBaseHealth(updateRequest.getBaseHealth());
+        character.setBaseAttack(updateRequest.getBaseAttack());
+        character.setBaseMagic(updateRequest.getBaseMagic());
+        character.setBasePhysicalDefense(updateRequest.getBasePhysicalDefense());
+        character.setBaseMagicalDefense(updateRequest.getBaseMagicalDefense());
+        character.setBaseSpeed(updateRequest.getBaseSpeed());
+        character.setUpdatedAt(updateRequest.getUpdatedAt());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.todo.functions.characterMaster.repository;
+
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+
+import java.util.List;
+
+// Bulk operations that bypass the entity manager, mixed into CharacterRepository
+public interface CharacterBulkRepository {
+
+    // Insert all characters with one JDBC batch and set their generated ids
+    void insertAll(List<GameCharacter> characters);
+}
@@ -0,0 +1,84 @@
+package com.example.todo.functions.characterMaster.repository;
+
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * GameCharacter ids are IDENTITY generated, which stops Hibernate from batching inserts, so bulk
+ * inserts go straight through JDBC. With rewriteBatchedStatements=true the driver sends the batch
+ * as multi-row INSERTs and MySQL allocates the whole batch's ids at once.
+ */
+public class CharacterBulkRepositoryImpl implements CharacterBulkRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO character_classes (name, description, type, classification, sprite_path, "
+            + "sprite_file_name, base_health, base_attack, base_magic, base_physical_defense, base_magical_defense, base_speed, "
+            + "is_deleted, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CharacterBulkRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<GameCharacter> characters) {
+        if (characters.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (GameCharacter character : characters) {
+                    character.setCreatedAt(now);
+                    character.setUpdatedAt(now);
+                    statement.setString(1, character.getName());
+                    statement.setString(2, character.getDescription());
+                    statement.setString(3, character.getType().name());
+                    statement.setString(4, character.getClassification().name());
+                    statement.setString(5, character.getSpritePath());
+                    statement.setString(6, character.getSpriteFileName());
+                    setInteger(statement, 7, character.getBaseHealth());
+                    setInteger(statement, 8, character.getBaseAttack());
+                    setInteger(statement, 9, character.getBaseMagic());
+                    setInteger(statement, 10, character.getBasePhysicalDefense());
+                    setInteger(statement, 11, character.getBaseMagicalDefense());
+                    setInteger(statement, 12, character.getBaseSpeed());
+                    statement.setBoolean(13, Boolean.TRUE.equals(character.getIsDeleted()));
+                    statement.setTimestamp(14, now);
+                    statement.setTimestamp(15, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (GameCharacter character : characters) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Missing generated id for bulk inserted character");
+                        }
+                        character.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void setInteger(PreparedStatement statement, int index, Integer value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.INTEGER);
+        } else {
+            statement.setInt(index, value);
+        }
+    }
+}
@@ -1,26 +1,60 @@
 package com.example.todo.functions.characterMaster.repository;
 
 import com.example.todo.functions.characterMaster.entity.GameCharacter;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CharacterRepository extends JpaRepository<GameCharacter, Long>, JpaSpecificationExecutor<GameCharacter> {
+public interface CharacterRepository extends JpaRepository<GameCharacter, Long>, JpaSpecificationExecutor<GameCharacter>,
+        CharacterBulkRepository, CharacterSummaryRepository {
 
-    // Find all characters that are not deleted
-    List<GameCharacter> findByIsDeletedFalse();
-
-    // Find all characters that are not deleted with pagination
-    Page<GameCharacter> findByIsDeletedFalse(Pageable pageable);
+    // List and search queries go through CharacterSummaryRepository, which skips the description column
 
     // Find a character by ID that is not deleted
     Optional<GameCharacter> findByIdAndIsDeletedFalse(Long id);
 
+    // Sprite paths of the given characters that are not deleted and have a sprite
+    @Query("SELECT c.spritePath FROM GameCharacter c WHERE c.id IN ?1 AND c.isDeleted = false AND c.spritePath IS NOT NULL")
+    List<String> findSpritePathsByIdIn(Collection<Long> ids);
+
+    // Number of characters, deleted ones included, whose sprite is the given stored file
+    long countBySpriteFileName(String spriteFileName);
+
+    // Which of the given stored files at least one character, deleted ones included, points at
+    @Query("SELECT DISTINCT c.spriteFileName FROM GameCharacter c WHERE c.spriteFileName IN ?1")
+    List<String> findReferencedSpriteFileNames(Collection<String> spriteFileNames);
+
+    // Rows not yet backfilled with sprite_file_name, matched on the sprite URL forms the API produces
+    @Query("SELECT COUNT(c) FROM GameCharacter c WHERE c.spriteFileName IS NULL AND c.spritePath IN ?1")
+    long countLegacyBySpritePathIn(Collection<String> spritePaths);
+
+    @Query("SELECT DISTINCT c.spritePath FROM GameCharacter c WHERE c.spriteFileName IS NULL AND c.spritePath IN ?1")
+    List<String> findLegacyReferencedSpritePaths(Collection<String> spritePaths);
+
+    // Latest modification time across all characters, deleted ones included
+    @Query("SELECT MAX(c.updatedAt) FROM GameCharacter c")
+    Timestamp findLastUpdatedAt();
+
+    // Stream all characters that are not deleted, forward-only, fetching rows from MySQL in chunks
+    // (requires useCursorFetch=true on the JDBC url) instead of buffering the whole result set.
+    // Must be consumed inside a transaction and closed afterwards.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT c FROM GameCharacter c WHERE c.isDeleted = false ORDER BY c.id")
+    Stream<GameCharacter> streamByIsDeletedFalse();
 
 }
@@ -0,0 +1,20 @@
+package com.example.todo.functions.characterMaster.repository;
+
+import com.example.todo.functions.characterMaster.dto.ReadCharacterSummary;
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+// Queries that select only the summary columns (no description TEXT), mixed into CharacterRepository
+public interface CharacterSummaryRepository {
+
+    Page<ReadCharacterSummary> findSummaries(Specification<GameCharacter> spec, Pageable pageable);
+
+    List<ReadCharacterSummary> findSummaries(Specification<GameCharacter> spec, Sort sort);
+
+    List<ReadCharacterSummary> findSummaries(Specification<GameCharacter> spec, Sort sort, int limit);
+}
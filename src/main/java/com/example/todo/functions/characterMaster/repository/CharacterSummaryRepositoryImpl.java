@@ -0,0 +1,90 @@
+package com.example.todo.functions.characterMaster.repository;
+
+import com.example.todo.functions.characterMaster.dto.ReadCharacterSummary;
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class CharacterSummaryRepositoryImpl implements CharacterSummaryRepository {
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    public CharacterSummaryRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<ReadCharacterSummary> findSummaries(Specification<GameCharacter> spec, Pageable pageable) {
+        List<ReadCharacterSummary> content = select(spec, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // Skips the COUNT when the page itself shows the total (first or last page)
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<ReadCharacterSummary> findSummaries(Specification<GameCharacter> spec, Sort sort) {
+        return select(spec, sort).getResultList();
+    }
+
+    @Override
+    public List<ReadCharacterSummary> findSummaries(Specification<GameCharacter> spec, Sort sort, int limit) {
+        return select(spec, sort).setMaxResults(limit).getResultList();
+    }
+
+    private TypedQuery<ReadCharacterSummary> select(Specification<GameCharacter> spec, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReadCharacterSummary> query = criteriaBuilder.createQuery(ReadCharacterSummary.class);
+        Root<GameCharacter> root = query.from(GameCharacter.class);
+
+        query.select(criteriaBuilder.construct(ReadCharacterSummary.class,
+                root.get("id"),
+                root.get("type"),
+                root.get("classification"),
+                root.get("name"),
+                root.get("spritePath"),
+                root.get("baseHealth"),
+                root.get("baseAttack"),
+                root.get("baseMagic"),
+                root.get("basePhysicalDefense"),
+                root.get("baseMagicalDefense"),
+                root.get("baseSpeed"),
+                root.get("createdAt"),
+                root.get("updatedAt")));
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<GameCharacter> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<GameCharacter> root = query.from(GameCharacter.class);
+        query.select(criteriaBuilder.count(root));
+
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.todo.functions.characterMaster.service;
 
+import com.example.todo.common.cache.CacheStats;
+import com.example.todo.common.dto.CursorPage;
+import com.example.todo.functions.characterMaster.dto.BulkCharacterResult;
 import com.example.todo.functions.characterMaster.dto.FilterCharacter;
 import com.example.todo.functions.characterMaster.dto.ReadCharacter;
+import com.example.todo.functions.characterMaster.dto.ReadCharacterSummary;
 import com.example.todo.functions.characterMaster.dto.CreateCharacter;
 import com.example.todo.functions.characterMaster.dto.UpdateCharacter;
 import com.example.todo.functions.characterMaster.entity.GameCharacter;
@@ -9,7 +13,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 
 @Service
@@ -19,16 +27,31 @@ public interface CharacterService {
     ReadCharacter convertToDTO(GameCharacter character);
 
     // Find all characters that are not deleted
-    List<ReadCharacter> getAllCharacters();
+    List<ReadCharacterSummary> getAllCharacters();
+
+    // Stream all characters that are not deleted to the consumer without materializing the catalog
+    void streamAllCharacters(Consumer<ReadCharacter> consumer);
 
     // Find a character by ID that is not deleted
     ReadCharacter getCharacterById(Long id);
 
+    // Opaque version of the whole catalog, changes on every create, update and delete
+    String getCatalogVersion();
+
+    // Hit/miss/eviction counters of the getCharacterById cache, null when disabled
+    CacheStats getCacheStats();
+
     // Find all characters that are not deleted with pagination
-    Page<ReadCharacter> getAllCharactersPaginated(int page, int size, String sortBy, String sortDirection);
+    Page<ReadCharacterSummary> getAllCharactersPaginated(int page, int size, String sortBy, String sortDirection);
 
     // Find all characters with search, filter and pagination
-    Page<ReadCharacter> searchAndFilterCharacters(String searchTerm, FilterCharacter filter, int page, int size, String sortBy, String sortDirection);
+    Page<ReadCharacterSummary> searchAndFilterCharacters(String searchTerm, FilterCharacter filter, int page, int size, String sortBy, String sortDirection);
+
+    // Find all characters that are not deleted using keyset (cursor) pagination
+    CursorPage<ReadCharacterSummary> getAllCharactersByCursor(String cursor, int size, String sortBy, String sortDirection);
+
+    // Find all characters with search and filter using keyset (cursor) pagination
+    CursorPage<ReadCharacterSummary> searchAndFilterCharactersByCursor(String searchTerm, FilterCharacter filter, String cursor, int size, String sortBy, String sortDirection);
 
     // Create a new character from CreateCharacter DTO
     ReadCharacter createCharacter(CreateCharacter createRequest);
@@ -42,9 +65,22 @@ public interface CharacterService {
     // Update an existing character from UpdateCharacter DTO
     ReadCharacter updateCharacter(Long id, UpdateCharacter updateRequest);
 
+    // Create many characters in batched transactions, reporting the outcome of each item
+    List<BulkCharacterResult> bulkCreateCharacters(Iterator<CreateCharacter> createRequests);
+
+    // Update many characters in batched transactions, reporting the outcome of each item
+    List<BulkCharacterResult> bulkUpdateCharacters(Iterator<UpdateCharacter> updateRequests);
+
     // Update a character's sprite image
     ReadCharacter updateCharacterSprite(Long id, MultipartFile file);
 
+    // Stored sprite file names of the given characters; characters without a sprite are skipped
+    List<String> getSpriteFileNames(Collection<Long> ids);
+
+    // Point characters at stored sprite files in one transaction; returns the previous file name
+    // of each character found (null when it had no sprite)
+    Map<Long, String> assignSprites(Map<Long, String> fileNamesById);
+
     // Soft delete a character by ID
     void softDeleteCharacter(Long id);
 
@@ -1,65 +1,160 @@
 package com.example.todo.functions.characterMaster.service.impl;
 
+import com.example.todo.common.cache.BoundedCache;
+import com.example.todo.common.cache.CacheStats;
+import com.example.todo.common.dto.CursorPage;
+import com.example.todo.common.dto.StagedFile;
+import com.example.todo.common.io.BulkItems;
 import com.example.todo.common.service.FileStorageService;
+import com.example.todo.functions.characterMaster.dto.BulkCharacterResult;
 import com.example.todo.functions.characterMaster.dto.FilterCharacter;
 import com.example.todo.functions.characterMaster.dto.ReadCharacter;
+import com.example.todo.functions.characterMaster.dto.ReadCharacterSummary;
 import com.example.todo.functions.characterMaster.dto.CreateCharacter;
 import com.example.todo.functions.characterMaster.dto.UpdateCharacter;
 import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.CharacterClassification;
 import com.example.todo.functions.characterMaster.enums.CharacterType;
+import com.example.todo.functions.characterMaster.index.CharacterNameIndex;
+import com.example.todo.functions.characterMaster.index.CharacterStatIndex;
+import com.example.todo.functions.characterMaster.mapper.CharacterMapper;
 import com.example.todo.functions.characterMaster.service.CharacterService;
+import com.example.todo.functions.characterMaster.specification.CharacterCursor;
 import com.example.todo.functions.characterMaster.specification.CharacterSpecification;
-import org.springframework.beans.BeanUtils;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.example.todo.functions.characterMaster.repository.CharacterRepository;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CharacterServiceImpl implements CharacterService {
 
+    // Sprite URLs are this prefix followed by the stored file name. New names are the content hash,
+    // so the URL is fingerprinted and served as immutable (see SpriteCacheControl).
+    static final String SPRITE_URL_PREFIX = "/uploads/";
+
     private final CharacterRepository characterRepository;
     private final FileStorageService fileStorageService;
+    private final EntityManager entityManager;
+    private final CharacterStatIndex characterStatIndex;
+    private final CharacterNameIndex characterNameIndex;
+
+    // Above this many name index matches the SQL path keeps its LIKE instead of a huge IN list
+    private final int nameIndexMaxInList;
+
+    // Bulk requests are written in transactions of this many characters
+    private final int bulkBatchSize;
+    private final TransactionTemplate transactionTemplate;
+
+    // Read-only transactions for the reads that may go to a replica: the catalog version (only on a
+    // cache miss) and the SQL list/search pages. Methods that also take the stat-index path open
+    // none themselves, so that path reads from the primary.
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    // Read-through cache of getCharacterById results, null when disabled
+    private final BoundedCache<Long, ReadCharacter> characterCache;
+
+    // Memoized catalog version, so list ETags cost at most one version query per TTL
+    private static final String CATALOG_VERSION_KEY = "catalog";
+    private final BoundedCache<String, String> catalogVersionCache;
 
     @Autowired
-    public CharacterServiceImpl(CharacterRepository characterRepository, FileStorageService fileStorageService) {
+    public CharacterServiceImpl(CharacterRepository characterRepository,
+                                FileStorageService fileStorageService,
+                                EntityManager entityManager,
+                                CharacterStatIndex characterStatIndex,
+                                CharacterNameIndex characterNameIndex,
+                                @Value("${character.name-index.max-in-list:1000}") int nameIndexMaxInList,
+                                @Value("${character.bulk.batch-size:500}") int bulkBatchSize,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${character.etag.catalog-version-ttl:PT1S}") Duration catalogVersionTtl,
+                                @Value("${character.cache.enabled:true}") boolean cacheEnabled,
+                                @Value("${character.cache.max-size:10000}") int cacheMaxSize,
+                                @Value("${character.cache.ttl:PT5M}") Duration cacheTtl) {
         this.characterRepository = characterRepository;
         this.fileStorageService = fileStorageService;
+        this.entityManager = entityManager;
+        this.characterStatIndex = characterStatIndex;
+        this.characterNameIndex = characterNameIndex;
+        this.nameIndexMaxInList = nameIndexMaxInList;
+        this.bulkBatchSize = bulkBatchSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.characterCache = cacheEnabled ? new BoundedCache<>(cacheMaxSize, cacheTtl) : null;
+        this.catalogVersionCache = new BoundedCache<>(1, catalogVersionTtl);
     }
 
     // Find all characters that are not deleted
     @Override
-    public List<ReadCharacter> getAllCharacters(){
-        List<GameCharacter> characters = characterRepository.findByIsDeletedFalse();
-        return characters.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ReadCharacterSummary> getAllCharacters(){
+        return characterRepository.findSummaries(
+                CharacterSpecification.getFilteredCharacters(new FilterCharacter(), null), Sort.unsorted());
+    }
+
+    // Stream all characters that are not deleted; each entity is detached once handed to the
+    // consumer so the persistence context does not grow with the catalog
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllCharacters(Consumer<ReadCharacter> consumer) {
+        try (Stream<GameCharacter> characters = characterRepository.streamByIsDeletedFalse()) {
+            characters.forEach(character -> {
+                consumer.accept(convertToDTO(character));
+                entityManager.detach(character);
+            });
+        }
     }
 
     // Find all characters that are not deleted with pagination
     @Override
-    public Page<ReadCharacter> getAllCharactersPaginated(int page, int size, String sortBy, String sortDirection) {
+    public Page<ReadCharacterSummary> getAllCharactersPaginated(int page, int size, String sortBy, String sortDirection) {
         Sort sort = sortDirection.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() :
                 Sort.by(sortBy).ascending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<GameCharacter> characterPage = characterRepository.findByIsDeletedFalse(pageable);
 
-        return characterPage.map(this::convertToDTO);
+        if (characterStatIndex.canServe(sortBy)) {
+            return searchStatIndex(new FilterCharacter(), null, pageable, sortBy, sortDirection);
+        }
+
+        return readOnlyTransactionTemplate.execute(status -> characterRepository.findSummaries(
+                CharacterSpecification.getFilteredCharacters(new FilterCharacter(), null), pageable));
     }
 
-    // Find all characters with search, filter and pagination
+    // Find all characters with search, filter and pagination. Only the SQL path runs read-only (on a
+    // replica when one is in use); stat index pages are hydrated on the primary, see searchStatIndex
     @Override
-    public Page<ReadCharacter> searchAndFilterCharacters(String searchTerm, FilterCharacter filter, int page, int size, String sortBy, String sortDirection) {
+    public Page<ReadCharacterSummary> searchAndFilterCharacters(String searchTerm, FilterCharacter filter, int page, int size, String sortBy, String sortDirection) {
         Sort sort = sortDirection.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() :
                 Sort.by(sortBy).ascending();
@@ -70,26 +165,136 @@ public class CharacterServiceImpl implements CharacterService {
             filter = new FilterCharacter();
         }
 
-        Specification<GameCharacter> spec = CharacterSpecification.getFilteredCharacters(filter, searchTerm);
-        Page<GameCharacter> characterPage = characterRepository.findAll(spec, pageable);
+        Set<Long> nameMatchIds = findNameMatches(searchTerm, filter);
+        if ((!StringUtils.hasText(searchTerm) || nameMatchIds != null) && characterStatIndex.canServe(sortBy)) {
+            return searchStatIndex(filter, nameMatchIds, pageable, sortBy, sortDirection);
+        }
+
+        Specification<GameCharacter> spec = buildSearchSpecification(filter, searchTerm, nameMatchIds);
+        return readOnlyTransactionTemplate.execute(status -> characterRepository.findSummaries(spec, pageable));
+    }
+
+    // Resolve the search term through the name index, or null when the index cannot answer
+    private Set<Long> findNameMatches(String searchTerm, FilterCharacter filter) {
+        if (!StringUtils.hasText(searchTerm) || !characterNameIndex.isReady()) {
+            return null;
+        }
+        return characterNameIndex.find(searchTerm, filter.getSearchMode());
+    }
+
+    // Name index matches become an id IN (...) predicate unless there are too many of them, in which
+    // case the LIKE predicate is cheaper; too many fuzzy matches are an IllegalArgumentException
+    private Specification<GameCharacter> buildSearchSpecification(FilterCharacter filter, String searchTerm, Set<Long> nameMatchIds) {
+        return CharacterSpecification.getFilteredCharacters(filter, searchTerm, nameMatchIds, nameIndexMaxInList);
+    }
+
+    // Answer a filtered page from the in-memory stat index; MySQL is only asked for the rows of the page.
+    // Runs outside any transaction so the rows come from the primary the index follows: a lagging
+    // replica would drop ids the index already counts in its total.
+    private Page<ReadCharacterSummary> searchStatIndex(FilterCharacter filter, Collection<Long> nameMatchIds, Pageable pageable, String sortBy, String sortDirection) {
+        CharacterStatIndex.Result result = characterStatIndex.search(filter, nameMatchIds, pageable.getPageNumber(), pageable.getPageSize(),
+                sortBy, sortDirection.equalsIgnoreCase("desc"));
+
+        Map<Long, ReadCharacterSummary> charactersById = characterRepository
+                .findSummaries(CharacterSpecification.hasIdIn(result.ids()), Sort.unsorted()).stream()
+                .collect(Collectors.toMap(ReadCharacterSummary::getId, Function.identity()));
+        List<ReadCharacterSummary> characters = result.ids().stream()
+                .map(charactersById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(characters, pageable, result.total());
+    }
+
+    // Find all characters that are not deleted, one keyset slice at a time
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ReadCharacterSummary> getAllCharactersByCursor(String cursor, int size, String sortBy, String sortDirection) {
+        return findCharactersAfterCursor(CharacterSpecification.getFilteredCharacters(new FilterCharacter(), null),
+                cursor, size, sortBy, sortDirection);
+    }
 
-        return characterPage.map(this::convertToDTO);
+    // Find all characters with search and filter, one keyset slice at a time
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ReadCharacterSummary> searchAndFilterCharactersByCursor(String searchTerm, FilterCharacter filter, String cursor, int size, String sortBy, String sortDirection) {
+        if (filter == null) {
+            filter = new FilterCharacter();
+        }
+        Specification<GameCharacter> spec = buildSearchSpecification(filter, searchTerm, findNameMatches(searchTerm, filter));
+        return findCharactersAfterCursor(spec, cursor, size, sortBy, sortDirection);
     }
 
+    // Seek past the cursor instead of skipping rows, and fetch one extra row to learn whether
+    // there is a next slice; no COUNT query is issued
+    private CursorPage<ReadCharacterSummary> findCharactersAfterCursor(Specification<GameCharacter> spec, String cursor, int size, String sortBy, String sortDirection) {
+        if (!CharacterCursor.isSortable(sortBy)) {
+            throw new IllegalArgumentException("Cursor pagination is not supported for sort field: " + sortBy);
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        boolean descending = sortDirection.equalsIgnoreCase("desc");
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = "id".equals(sortBy) ?
+                Sort.by(direction, "id") :
+                Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+
+        if (cursor != null && !cursor.isEmpty()) {
+            CharacterCursor position = CharacterCursor.decode(cursor);
+            position.requireOrdering(sortBy, descending);
+            spec = spec.and(CharacterSpecification.after(position));
+        }
+
+        List<ReadCharacterSummary> rows = characterRepository.findSummaries(spec, sort, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<ReadCharacterSummary> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = hasNext ?
+                CharacterCursor.after(content.get(content.size() - 1), sortBy, descending).encode() :
+                null;
+
+        return new CursorPage<>(content, size, hasNext, nextCursor);
+    }
 
     // Find a character by ID that is not deleted
     @Override
     public ReadCharacter getCharacterById(Long id) {
-        GameCharacter character = characterRepository.findByIdAndIsDeletedFalse(id)
-                .orElseThrow(() -> new RuntimeException("Character not found with id: " + id));
-        return convertToDTO(character);
+        if (characterCache == null) {
+            return loadCharacterById(id);
+        }
+        return characterCache.get(id, this::loadCharacterById);
+    }
+
+    // Version of the whole catalog: changes whenever a character is created, updated or deleted.
+    // Hard deletes do not move max(updated_at), so the row count is part of the version.
+    // Read from the same place as the lists it tags (a replica when one is in use), so an ETag
+    // never claims a version newer than the list body sent with it.
+    // Limit: updated_at is stamped before commit, so an update that commits after a later-stamped
+    // one leaves both max(updated_at) and the count where they were. Clients holding that ETag get
+    // 304s for the stale list until the next write moves the version; list ETags are weak for
+    // this reason, and a monotonic counter bumped in each writing transaction would close the gap.
+    @Override
+    public String getCatalogVersion() {
+        return catalogVersionCache.get(CATALOG_VERSION_KEY, key -> readOnlyTransactionTemplate.execute(status -> {
+            Timestamp lastUpdatedAt = characterRepository.findLastUpdatedAt();
+            long rowCount = characterRepository.count();
+            return lastUpdatedAt == null ?
+                    "empty-" + rowCount :
+                    lastUpdatedAt.getTime() + "." + lastUpdatedAt.getNanos() + "-" + rowCount;
+        }));
+    }
+
+    // Cache counters, or null when the cache is disabled
+    @Override
+    public CacheStats getCacheStats() {
+        return characterCache == null ? null : characterCache.stats();
     }
 
     // Create a new character from CreateCharacter DTO
     @Override
     public ReadCharacter createCharacter(CreateCharacter createRequest) {
-        GameCharacter character = new GameCharacter();
-        BeanUtils.copyProperties(createRequest, character);
+        GameCharacter character = CharacterMapper.toEntity(createRequest);
 
         //set to type == "NPC" if type is not specified
         if (character.getType() == null) {
@@ -99,6 +304,9 @@ public class CharacterServiceImpl implements CharacterService {
         character.setIsDeleted(false);
 
         GameCharacter savedCharacter = characterRepository.save(character);
+        catalogVersionCache.invalidateAll();
+        characterStatIndex.upsert(savedCharacter);
+        characterNameIndex.upsert(savedCharacter);
         return convertToDTO(savedCharacter);
     }
 
@@ -122,34 +330,255 @@ public class CharacterServiceImpl implements CharacterService {
         GameCharacter existingCharacter = characterRepository.findByIdAndIsDeletedFalse(id)
                 .orElseThrow(() -> new RuntimeException("Character not found with id: " + id));
 
-        BeanUtils.copyProperties(updateRequest, existingCharacter, "id", "isDeleted");
+        CharacterMapper.applyUpdate(updateRequest, existingCharacter);
         GameCharacter updatedCharacter = characterRepository.save(existingCharacter);
+        evictCachedCharacter(id);
+        characterStatIndex.upsert(updatedCharacter);
+        characterNameIndex.upsert(updatedCharacter);
         return convertToDTO(updatedCharacter);
     }
 
+    // Create characters in batches, each batch one transaction and one multi-row insert
+    @Override
+    public List<BulkCharacterResult> bulkCreateCharacters(Iterator<CreateCharacter> createRequests) {
+        List<BulkCharacterResult> results = new ArrayList<>();
+        List<GameCharacter> batch = new ArrayList<>(bulkBatchSize);
+        List<Integer> batchIndexes = new ArrayList<>(bulkBatchSize);
+
+        for (BulkItems.Item<CreateCharacter> item : BulkItems.of(createRequests)) {
+            int index = item.index();
+            CreateCharacter createRequest = item.value();
+            String error;
+            if (item.unreadable()) {
+                error = item.error();
+            } else if (createRequest == null) {
+                error = "item is empty";
+            } else {
+                if (createRequest.getType() == null) {
+                    createRequest.setType(CharacterType.NPC);
+                }
+                error = validateBulkItem(createRequest.getName(), createRequest.getType(), createRequest.getClassification());
+            }
+            if (error != null) {
+                results.add(new BulkCharacterResult(index, null, BulkCharacterResult.Status.FAILED, error));
+                continue;
+            }
+
+            GameCharacter character = CharacterMapper.toEntity(createRequest);
+            character.setIsDeleted(false);
+            batch.add(character);
+            batchIndexes.add(index);
+
+            if (batch.size() == bulkBatchSize) {
+                insertBatch(batch, batchIndexes, results);
+            }
+        }
+        insertBatch(batch, batchIndexes, results);
+
+        results.sort(Comparator.comparingInt(BulkCharacterResult::getIndex));
+        return results;
+    }
+
+    private void insertBatch(List<GameCharacter> batch, List<Integer> batchIndexes, List<BulkCharacterResult> results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> characterRepository.insertAll(batch));
+            catalogVersionCache.invalidateAll();
+            for (int i = 0; i < batch.size(); i++) {
+                GameCharacter character = batch.get(i);
+                characterStatIndex.upsert(character);
+                characterNameIndex.upsert(character);
+                results.add(new BulkCharacterResult(batchIndexes.get(i), character.getId(), BulkCharacterResult.Status.CREATED, null));
+            }
+        } catch (RuntimeException e) {
+            for (Integer index : batchIndexes) {
+                results.add(new BulkCharacterResult(index, null, BulkCharacterResult.Status.FAILED, e.getMessage()));
+            }
+        }
+        batch.clear();
+        batchIndexes.clear();
+    }
+
+    // Update characters in batches, each batch one transaction with JDBC-batched UPDATEs
+    @Override
+    public List<BulkCharacterResult> bulkUpdateCharacters(Iterator<UpdateCharacter> updateRequests) {
+        List<BulkCharacterResult> results = new ArrayList<>();
+        List<UpdateCharacter> batch = new ArrayList<>(bulkBatchSize);
+        List<Integer> batchIndexes = new ArrayList<>(bulkBatchSize);
+
+        for (BulkItems.Item<UpdateCharacter> item : BulkItems.of(updateRequests)) {
+            int index = item.index();
+            UpdateCharacter updateRequest = item.value();
+            String error;
+            if (item.unreadable()) {
+                error = item.error();
+            } else if (updateRequest == null) {
+                error = "item is empty";
+            } else if (updateRequest.getId() == null) {
+                error = "id is required";
+            } else {
+                error = validateBulkItem(updateRequest.getName(), updateRequest.getType(), updateRequest.getClassification());
+            }
+            if (error != null) {
+                results.add(new BulkCharacterResult(index, updateRequest == null ? null : updateRequest.getId(),
+                        BulkCharacterResult.Status.FAILED, error));
+                continue;
+            }
+            batch.add(updateRequest);
+            batchIndexes.add(index);
+
+            if (batch.size() == bulkBatchSize) {
+                updateBatch(batch, batchIndexes, results);
+            }
+        }
+        updateBatch(batch, batchIndexes, results);
+
+        results.sort(Comparator.comparingInt(BulkCharacterResult::getIndex));
+        return results;
+    }
+
+    private void updateBatch(List<UpdateCharacter> batch, List<Integer> batchIndexes, List<BulkCharacterResult> results) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<BulkCharacterResult> batchResults = new ArrayList<>(batch.size());
+        List<GameCharacter> updatedCharacters = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> ids = batch.stream().map(UpdateCharacter::getId).collect(Collectors.toList());
+                Map<Long, GameCharacter> charactersById = characterRepository.findAllById(ids).stream()
+                        .filter(character -> !Boolean.TRUE.equals(character.getIsDeleted()))
+                        .collect(Collectors.toMap(GameCharacter::getId, Function.identity()));
+
+                for (int i = 0; i < batch.size(); i++) {
+                    UpdateCharacter updateRequest = batch.get(i);
+                    GameCharacter character = charactersById.get(updateRequest.getId());
+                    if (character == null) {
+                        batchResults.add(new BulkCharacterResult(batchIndexes.get(i), updateRequest.getId(),
+                                BulkCharacterResult.Status.FAILED, "Character not found with id: " + updateRequest.getId()));
+                        continue;
+                    }
+                    CharacterMapper.applyUpdate(updateRequest, character);
+                    updatedCharacters.add(character);
+                    batchResults.add(new BulkCharacterResult(batchIndexes.get(i), character.getId(),
+                            BulkCharacterResult.Status.UPDATED, null));
+                }
+                characterRepository.saveAll(updatedCharacters);
+            });
+        } catch (RuntimeException e) {
+            batchResults.clear();
+            updatedCharacters.clear();
+            for (int i = 0; i < batch.size(); i++) {
+                batchResults.add(new BulkCharacterResult(batchIndexes.get(i), batch.get(i).getId(),
+                        BulkCharacterResult.Status.FAILED, e.getMessage()));
+            }
+        }
+
+        for (GameCharacter character : updatedCharacters) {
+            evictCachedCharacter(character.getId());
+            characterStatIndex.upsert(character);
+            characterNameIndex.upsert(character);
+        }
+        results.addAll(batchResults);
+        batch.clear();
+        batchIndexes.clear();
+    }
+
+    // Reject items that would violate the NOT NULL/length constraints of character_classes
+    private String validateBulkItem(String name, CharacterType type, CharacterClassification classification) {
+        if (!StringUtils.hasText(name)) {
+            return "name is required";
+        }
+        if (name.length() > 50) {
+            return "name must be at most 50 characters";
+        }
+        if (type == null) {
+            return "type is required";
+        }
+        if (classification == null) {
+            return "classification is required";
+        }
+        return null;
+    }
+
     // Update a character's sprite image
     @Override
     public ReadCharacter updateCharacterSprite(Long id, MultipartFile file) {
         GameCharacter character = characterRepository.findByIdAndIsDeletedFalse(id)
                 .orElseThrow(() -> new RuntimeException("Character not found with id: " + id));
 
-        // Delete old sprite if exists
-        if (character.getSpritePath() != null && !character.getSpritePath().isEmpty()) {
-            // Extract just the filename from the full path
-            String oldFileName = character.getSpritePath().substring(
-                    character.getSpritePath().lastIndexOf("/") + 1);
+        String oldFileName = spriteFileName(character.getSpritePath());
+
+        // Stage the new file first; it only becomes visible once the character points at it, so a
+        // failed save leaves nothing behind. Identical content shares one stored file.
+        StagedFile stagedFile = fileStorageService.stageFile(file);
+        String fileName = stagedFile.getFileName();
+        String oldSpritePath = character.getSpritePath();
+
+        GameCharacter updatedCharacter;
+        try {
+            // Fingerprinted URL: it changes whenever the sprite content does
+            character.setSpritePath(SPRITE_URL_PREFIX + fileName);
+            updatedCharacter = characterRepository.save(character);
+        } catch (RuntimeException ex) {
+            fileStorageService.discardStagedFile(stagedFile);
+            throw ex;
+        } finally {
+            evictCachedCharacter(id);
+        }
+
+        try {
+            fileStorageService.commitStagedFile(stagedFile);
+        } catch (RuntimeException ex) {
+            // Point the character back at its old sprite rather than at a missing file
+            updatedCharacter.setSpritePath(oldSpritePath);
+            characterRepository.save(updatedCharacter);
+            throw ex;
+        }
+
+        // Only now that this character no longer points at it can the old sprite go, and only
+        // if no other character shares it
+        if (oldFileName != null && !oldFileName.equals(fileName)) {
             fileStorageService.deleteFile(oldFileName);
         }
+        return convertToDTO(updatedCharacter);
+    }
 
-        // Store the new file
-        String fileName = fileStorageService.storeFile(file);
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> getSpriteFileNames(Collection<Long> ids) {
+        return characterRepository.findSpritePathsByIdIn(ids).stream()
+                .map(CharacterServiceImpl::spriteFileName)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+    }
 
-        // Create URL path for the sprite
-        String fileUrl = "/uploads/" + fileName;
-        character.setSpritePath(fileUrl);
+    // One transaction with JDBC-batched UPDATEs; the files must already be staged by the caller,
+    // which commits them afterwards and deletes the replaced ones
+    @Override
+    public Map<Long, String> assignSprites(Map<Long, String> fileNamesById) {
+        Map<Long, String> previousFileNames = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<GameCharacter> characters = characterRepository.findAllById(fileNamesById.keySet()).stream()
+                    .filter(character -> !Boolean.TRUE.equals(character.getIsDeleted()))
+                    .collect(Collectors.toList());
+            for (GameCharacter character : characters) {
+                previousFileNames.put(character.getId(), spriteFileName(character.getSpritePath()));
+                String fileName = fileNamesById.get(character.getId());
+                character.setSpritePath(fileName != null ? SPRITE_URL_PREFIX + fileName : null);
+            }
+            characterRepository.saveAll(characters);
+        });
+        previousFileNames.keySet().forEach(this::evictCachedCharacter);
+        return previousFileNames;
+    }
 
-        GameCharacter updatedCharacter = characterRepository.save(character);
-        return convertToDTO(updatedCharacter);
+    // The stored file name behind a sprite URL, null when there is no sprite
+    static String spriteFileName(String spritePath) {
+        return GameCharacter.spriteFileNameOf(spritePath);
     }
 
     // Soft delete a character by ID
@@ -159,23 +588,48 @@ public class CharacterServiceImpl implements CharacterService {
                 .orElseThrow(() -> new RuntimeException("Character not found with id: " + id));
         character.setIsDeleted(true);
         characterRepository.save(character);
+        evictCachedCharacter(id);
+        characterStatIndex.remove(id);
+        characterNameIndex.remove(id);
     }
 
 
     // Hard delete a character by ID
     @Override
     public void hardDeleteCharacter(Long id) {
-        if (characterRepository.existsById(id)) {
-            characterRepository.deleteById(id);
+        GameCharacter character = characterRepository.findById(id).orElse(null);
+        if (character != null) {
+            characterRepository.delete(character);
+            evictCachedCharacter(id);
+            characterStatIndex.remove(id);
+            characterNameIndex.remove(id);
+
+            // Soft-deleted characters keep their sprite; it is released with the row
+            String spriteFileName = spriteFileName(character.getSpritePath());
+            if (spriteFileName != null) {
+                fileStorageService.deleteFile(spriteFileName);
+            }
         } else {
             throw new RuntimeException("Character not found with id: " + id);
         }
     }
 
+    // Runs outside any transaction, so it reads the primary: a lagging replica must not seed the cache
+    private ReadCharacter loadCharacterById(Long id) {
+        GameCharacter character = characterRepository.findByIdAndIsDeletedFalse(id)
+                .orElseThrow(() -> new RuntimeException("Character not found with id: " + id));
+        return convertToDTO(character);
+    }
+
+    private void evictCachedCharacter(Long id) {
+        catalogVersionCache.invalidateAll();
+        if (characterCache != null) {
+            characterCache.invalidate(id);
+        }
+    }
+
     // Convert Character entity to ReadCharacter DTO
     public ReadCharacter convertToDTO(GameCharacter character) {
-        ReadCharacter dto = new ReadCharacter();
-        BeanUtils.copyProperties(character, dto);
-        return dto;
+        return CharacterMapper.toReadCharacter(character);
     }
 }
@@ -0,0 +1,25 @@
+package com.example.todo.functions.characterMaster.service.impl;
+
+import com.example.todo.common.service.SpriteAssigner;
+import com.example.todo.functions.characterMaster.service.CharacterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Assigns batch-uploaded sprites to characters by id
+@Component
+public class CharacterSpriteAssigner implements SpriteAssigner {
+
+    private final CharacterService characterService;
+
+    @Autowired
+    public CharacterSpriteAssigner(CharacterService characterService) {
+        this.characterService = characterService;
+    }
+
+    @Override
+    public Map<Long, String> assignSprites(Map<Long, String> fileNamesById) {
+        return characterService.assignSprites(fileNamesById);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.todo.functions.characterMaster.service.impl;
+
+import com.example.todo.common.service.FileReferenceCounter;
+import com.example.todo.functions.characterMaster.repository.CharacterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Counts the characters whose sprite is a stored file. Matched on the indexed sprite_file_name column,
+// whatever URL form the client stored; rows not yet backfilled are matched on the URL forms the
+// API hands out, through idx_character_sprite_path.
+@Component
+public class CharacterSpriteReferenceCounter implements FileReferenceCounter {
+
+    private static final List<String> LEGACY_URL_PREFIXES = List.of(CharacterServiceImpl.SPRITE_URL_PREFIX, "/api/v1/files/", "");
+
+    private final CharacterRepository characterRepository;
+
+    @Autowired
+    public CharacterSpriteReferenceCounter(CharacterRepository characterRepository) {
+        this.characterRepository = characterRepository;
+    }
+
+    @Override
+    public long countReferences(String fileName) {
+        return characterRepository.countBySpriteFileName(fileName)
+                + characterRepository.countLegacyBySpritePathIn(legacySpritePaths(List.of(fileName)));
+    }
+
+    @Override
+    public Set<String> findReferenced(Collection<String> fileNames) {
+        if (fileNames.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> referenced = new HashSet<>(characterRepository.findReferencedSpriteFileNames(fileNames));
+        characterRepository.findLegacyReferencedSpritePaths(legacySpritePaths(fileNames)).stream()
+                .map(CharacterServiceImpl::spriteFileName)
+                .forEach(referenced::add);
+        return referenced;
+    }
+
+    private static List<String> legacySpritePaths(Collection<String> fileNames) {
+        return fileNames.stream()
+                .flatMap(fileName -> LEGACY_URL_PREFIXES.stream().map(prefix -> prefix + fileName))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.todo.functions.characterMaster.specification;
+
+import com.example.todo.functions.characterMaster.dto.ReadCharacterSummary;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Position of the last row of a keyset page: the sort column value and the id used as tie-breaker.
+ *
+ * Encoded as an opaque URL-safe token; the sort column and direction are part of the token so a
+ * cursor cannot be replayed against a different ordering.
+ */
+@Getter
+public class CharacterCursor {
+
+    // Columns that can be used for keyset pagination, with the Java type of their values
+    private static final Map<String, Class<?>> SORTABLE_FIELDS = Map.of(
+            "id", Long.class,
+            "name", String.class,
+            "baseHealth", Integer.class,
+            "baseAttack", Integer.class,
+            "baseMagic", Integer.class,
+            "basePhysicalDefense", Integer.class,
+            "baseMagicalDefense", Integer.class,
+            "baseSpeed", Integer.class,
+            "createdAt", Timestamp.class,
+            "updatedAt", Timestamp.class
+    );
+
+    private static final String VERSION = "v1";
+    private static final String NULL_VALUE = "n";
+    private static final String VALUE_PREFIX = "v:";
+
+    private final String sortBy;
+    private final boolean descending;
+    private final Long id;
+    private final Object sortValue;
+
+    private CharacterCursor(String sortBy, boolean descending, Long id, Object sortValue) {
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.id = id;
+        this.sortValue = sortValue;
+    }
+
+    public static boolean isSortable(String sortBy) {
+        return SORTABLE_FIELDS.containsKey(sortBy);
+    }
+
+    // Cursor pointing just after the given character in the given ordering
+    public static CharacterCursor after(ReadCharacterSummary character, String sortBy, boolean descending) {
+        Object sortValue = switch (sortBy) {
+            case "id" -> character.getId();
+            case "name" -> character.getName();
+            case "baseHealth" -> character.getBaseHealth();
+            case "baseAttack" -> character.getBaseAttack();
+            case "baseMagic" -> character.getBaseMagic();
+            case "basePhysicalDefense" -> character.getBasePhysicalDefense();
+            case "baseMagicalDefense" -> character.getBaseMagicalDefense();
+            case "baseSpeed" -> character.getBaseSpeed();
+            case "createdAt" -> character.getCreatedAt();
+            case "updatedAt" -> character.getUpdatedAt();
+            default -> throw new IllegalArgumentException("Unsupported cursor sort field: " + sortBy);
+        };
+        return new CharacterCursor(sortBy, descending, character.getId(), sortValue);
+    }
+
+    public String encode() {
+        String value = sortValue == null ? NULL_VALUE : VALUE_PREFIX + sortValue;
+        String raw = String.join("|", VERSION, sortBy, descending ? "desc" : "asc", String.valueOf(id), value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CharacterCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The value goes last so that names containing '|' survive the split
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0]) || !isSortable(parts[1])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String sortBy = parts[1];
+            boolean descending = "desc".equals(parts[2]);
+            Long id = Long.valueOf(parts[3]);
+            Object sortValue = parts[4].equals(NULL_VALUE) ? null : parseValue(sortBy, parts[4].substring(VALUE_PREFIX.length()));
+            return new CharacterCursor(sortBy, descending, id, sortValue);
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+
+    // Reject a cursor issued for another ordering than the one requested
+    public void requireOrdering(String sortBy, boolean descending) {
+        if (!this.sortBy.equals(sortBy) || this.descending != descending) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort order");
+        }
+    }
+
+    private static Object parseValue(String sortBy, String value) {
+        Class<?> type = SORTABLE_FIELDS.get(sortBy);
+        if (type == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (type == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (type == Timestamp.class) {
+            return Timestamp.valueOf(value);
+        }
+        return value;
+    }
+}
@@ -2,16 +2,40 @@ package com.example.todo.functions.characterMaster.specification;
 
 import com.example.todo.functions.characterMaster.dto.FilterCharacter;
 import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.NameSearchMode;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class CharacterSpecification {
 
     public static Specification<GameCharacter> getFilteredCharacters(FilterCharacter filter, String searchTerm) {
+        return getFilteredCharacters(filter, searchTerm, null);
+    }
+
+    // Name index matches become an id IN (...) predicate unless there are more than maxInList of them,
+    // in which case scanning names with LIKE plans better than the long list. LIKE answers contains
+    // and prefix searches the same way, but not fuzzy ones, so a fuzzy term similar to that many
+    // names is rejected and the client has to narrow it.
+    public static Specification<GameCharacter> getFilteredCharacters(FilterCharacter filter, String searchTerm, Collection<Long> nameMatchIds, int maxInList) {
+        if (nameMatchIds == null || nameMatchIds.size() <= maxInList) {
+            return getFilteredCharacters(filter, searchTerm, nameMatchIds);
+        }
+        if (filter.getSearchMode() == NameSearchMode.FUZZY) {
+            throw new IllegalArgumentException("Fuzzy search term matches more than " + maxInList + " names, use a longer term");
+        }
+        return getFilteredCharacters(filter, searchTerm, null);
+    }
+
+    // nameMatchIds, when not null, are the ids whose name matches searchTerm as resolved by the
+    // name index; they replace the LIKE predicate on name
+    public static Specification<GameCharacter> getFilteredCharacters(FilterCharacter filter, String searchTerm, Collection<Long> nameMatchIds) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -20,10 +44,23 @@ public class CharacterSpecification {
 
             // Search term (for name field)
             if (StringUtils.hasText(searchTerm)) {
-                predicates.add(criteriaBuilder.like(
-                        criteriaBuilder.lower(root.get("name")),
-                        "%" + searchTerm.toLowerCase() + "%"
-                ));
+                if (nameMatchIds != null) {
+                    predicates.add(nameMatchIds.isEmpty() ?
+                            criteriaBuilder.disjunction() :
+                            root.get("id").in(nameMatchIds));
+                } else if (filter.getSearchMode() == NameSearchMode.PREFIX) {
+                    // No lower() here so idx_character_deleted_name can serve the range;
+                    // the column's case-insensitive collation already ignores case
+                    predicates.add(criteriaBuilder.like(
+                            root.get("name"),
+                            searchTerm + "%"
+                    ));
+                } else {
+                    predicates.add(criteriaBuilder.like(
+                            criteriaBuilder.lower(root.get("name")),
+                            "%" + searchTerm.toLowerCase() + "%"
+                    ));
+                }
             }
 
             // Filter by type
@@ -82,4 +119,45 @@ public class CharacterSpecification {
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+
+    // Keyset predicate selecting the rows that come after the cursor in (sortBy, id) order.
+    // Mirrors MySQL's null ordering: nulls sort first ascending and last descending.
+    public static Specification<GameCharacter> after(CharacterCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            Path<Long> id = root.get("id");
+            boolean descending = cursor.isDescending();
+
+            if ("id".equals(cursor.getSortBy())) {
+                return idAfter(criteriaBuilder, id, cursor);
+            }
+
+            Path<Comparable<Object>> field = root.get(cursor.getSortBy());
+            @SuppressWarnings("unchecked")
+            Comparable<Object> value = (Comparable<Object>) cursor.getSortValue();
+
+            if (value == null) {
+                Predicate sameNullGroup = criteriaBuilder.and(criteriaBuilder.isNull(field), idAfter(criteriaBuilder, id, cursor));
+                return descending ? sameNullGroup : criteriaBuilder.or(criteriaBuilder.isNotNull(field), sameNullGroup);
+            }
+
+            Predicate beyondValue = descending ?
+                    criteriaBuilder.lessThan(field, value) :
+                    criteriaBuilder.greaterThan(field, value);
+            Predicate sameValue = criteriaBuilder.and(criteriaBuilder.equal(field, value), idAfter(criteriaBuilder, id, cursor));
+            Predicate after = criteriaBuilder.or(beyondValue, sameValue);
+            return descending ? criteriaBuilder.or(after, criteriaBuilder.isNull(field)) : after;
+        };
+    }
+
+    private static Predicate idAfter(CriteriaBuilder criteriaBuilder, Path<Long> id, CharacterCursor cursor) {
+        return cursor.isDescending() ?
+                criteriaBuilder.lessThan(id, cursor.getId()) :
+                criteriaBuilder.greaterThan(id, cursor.getId());
+    }
+
+    public static Specification<GameCharacter> hasIdIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> ids.isEmpty() ?
+                criteriaBuilder.disjunction() :
+                root.get("id").in(ids);
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.todo.functions.userMaster.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,9 +16,20 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.todo.common.dto.CursorPage;
+import com.example.todo.functions.userMaster.dto.ImportUser;
+import com.example.todo.functions.userMaster.dto.UserImportReport;
+import com.example.todo.functions.userMaster.dto.UserSummary;
 import com.example.todo.functions.userMaster.entity.User;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.example.todo.common.io.NdjsonReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.todo.functions.userMaster.importer.UserCsvReader;
+import com.example.todo.functions.userMaster.service.UserImportService;
 import com.example.todo.functions.userMaster.service.UserService;
 
 import jakarta.validation.Valid;
@@ -22,20 +38,53 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    //flush the export stream every this many users
+    private static final int EXPORT_FLUSH_INTERVAL = 100;
+
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     //CREATE
     @PostMapping
     public ResponseEntity<?> createUser(@Valid @RequestBody User user) {
         try {
             User createdUser = userService.createUser(user);
             return ResponseEntity.ok(createdUser);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).body("Too many password operations in progress, try again later");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error creating user: " + e.getMessage());
         }       
     }
 
+    //CREATE many from a CSV stream with a name,email,password header
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<UserImportReport> importUsersCsv(InputStream body) {
+        try (UserCsvReader rows = new UserCsvReader(body)) {
+            return ResponseEntity.ok(userImportService.importUsers(rows));
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    //CREATE many from an NDJSON stream, one {name, email, password} per line
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<UserImportReport> importUsersNdjson(InputStream body) {
+        try (NdjsonReader<ImportUser> rows = new NdjsonReader<>(body, objectMapper.readerFor(ImportUser.class))) {
+            return ResponseEntity.ok(userImportService.importUsers(rows));
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     //READ all active (not deleted)
     @GetMapping
     public ResponseEntity<List<User>> getAllUsers() {
@@ -58,6 +107,57 @@ public class UserController {
         }
     }
 
+    //READ one keyset page (no passwords), oldest first; pass nextCursor back for the following page
+    @GetMapping("/paginated")
+    public ResponseEntity<CursorPage<UserSummary>> getUsersPaginated(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean includeDeleted) {
+        try {
+            return ResponseEntity.ok(userService.getUsersByCursor(cursor, size, includeDeleted));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    //READ all as a stream (no passwords), either NDJSON (default) or a chunked JSON array
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean includeDeleted) {
+        boolean ndjson = !"json".equalsIgnoreCase(format);
+
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            int[] written = {0};
+            userService.streamUsers(includeDeleted, user -> {
+                try {
+                    generator.writeObject(user);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                    if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.close();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     //READ by ID
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable String id) {
@@ -83,6 +183,8 @@ public class UserController {
             } else {
                 return ResponseEntity.status(404).body("User not found");
             }
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).body("Too many password operations in progress, try again later");
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Error updating user: " + e.getMessage());
         }
@@ -0,0 +1,28 @@
+package com.example.todo.functions.userMaster.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One row of a bulk user import (CSV or NDJSON), validated like the User entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportUser {
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 255, message = "Name must be at most 255 characters")
+    private String name;
+
+    @NotBlank(message = "Email is required")
+    @Email(message = "Email should be valid")
+    @Size(max = 255, message = "Email must be at most 255 characters")
+    private String email;
+
+    @NotBlank(message = "Password is required")
+    @Size(max = 255, message = "Password must be at most 255 characters")
+    private String password;
+}
@@ -0,0 +1,52 @@
+package com.example.todo.functions.userMaster.dto;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last user of a keyset page in (created_at, id) order.
+ *
+ * Encoded as an opaque URL-safe token. created_at is not unique, so the id breaks ties and the
+ * next page starts strictly after the pair instead of skipping or repeating users created in
+ * the same instant.
+ */
+@Getter
+public class UserCursor {
+
+    private static final String VERSION = "v1";
+
+    private final Timestamp createdAt;
+    private final UUID id;
+
+    private UserCursor(Timestamp createdAt, UUID id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    // Cursor pointing just after the given user
+    public static UserCursor after(UserSummary user) {
+        return new UserCursor(user.getCreated_at(), user.getId());
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, createdAt.toString(), id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new UserCursor(Timestamp.valueOf(parts[1]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
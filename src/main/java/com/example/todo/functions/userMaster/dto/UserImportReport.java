@@ -0,0 +1,50 @@
+package com.example.todo.functions.userMaster.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk user import: counts for the whole import, and a row entry only for rows that
+// were not created, so the report stays small when hundreds of thousands of rows go in
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportReport {
+
+    public enum Status {
+        DUPLICATE,
+        FAILED
+    }
+
+    // A row that was not created; index is its position among the imported rows, starting at 0
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Row {
+        private int index;
+        private Status status;
+        private String error;
+    }
+
+    private int created;
+    private int duplicates;
+    private int failed;
+    private List<Row> rows = new ArrayList<>();
+
+    public void addCreated(int count) {
+        created += count;
+    }
+
+    public void addDuplicate(int index, String error) {
+        duplicates++;
+        rows.add(new Row(index, Status.DUPLICATE, error));
+    }
+
+    public void addFailed(int index, String error) {
+        failed++;
+        rows.add(new Row(index, Status.FAILED, error));
+    }
+}
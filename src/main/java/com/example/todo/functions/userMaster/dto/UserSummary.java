@@ -0,0 +1,23 @@
+package com.example.todo.functions.userMaster.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+// User without the password, for list and export results; selected directly by
+// UserRepository's constructor queries so the password column is never read.
+// Field names follow the User entity so the JSON shape stays the same.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private UUID id;
+    private String name;
+    private String email;
+    private Boolean isDeleted;
+    private Timestamp created_at;
+    private Timestamp updated_at;
+}
@@ -1,13 +1,21 @@
 package com.example.todo.functions.userMaster.entity;
 
 import java.sql.Timestamp;
+import java.util.UUID;
 
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.type.SqlTypes;
+
+import com.example.todo.common.id.UuidV7Generator;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -15,14 +23,20 @@ import lombok.Data;
 
 @Entity
 @Data
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_user_created", columnList = "created_at, id"),
+        @Index(name = "idx_user_deleted_created", columnList = "isDeleted, created_at, id")
+})
 public class User {
     
+    //time-ordered (UUIDv7) and stored as BINARY(16) so inserts append to the clustered index;
+    //serialized in the usual string form
     @Id
     @GeneratedValue
-    @UuidGenerator
-    @Column(name = "id", updatable = false, nullable = false)
-    private String id;
+    @UuidGenerator(algorithm = UuidV7Generator.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", length = 16, updatable = false, nullable = false)
+    private UUID id;
 
     @NotBlank(message = "Name is required")
     @Column(name = "name", nullable = false)
@@ -33,6 +47,8 @@ public class User {
     @Column(name = "email", nullable = false, unique = true)
     private String email;
 
+    //accepted on create/update but never written back out
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @NotBlank(message = "Password is required")
     @Column(name = "password", nullable = false)
     private String password;
@@ -40,7 +56,8 @@ public class User {
     @Column(name = "isDeleted", nullable = false)
     private Boolean isDeleted = false;
     
-    @Column(name = "created_at", nullable = false)
+    //part of the cursor key, so never rewritten after the insert
+    @Column(name = "created_at", nullable = false, updatable = false)
     private Timestamp created_at;
 
     @Column(name = "updated_at", nullable = false)
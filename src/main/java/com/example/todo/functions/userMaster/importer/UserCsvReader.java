@@ -0,0 +1,145 @@
+package com.example.todo.functions.userMaster.importer;
+
+import com.example.todo.functions.userMaster.dto.ImportUser;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads ImportUser rows from UTF-8 CSV one record at a time, so an import never holds the whole
+ * file. The first record is a header naming the name, email and password columns in any order;
+ * other columns are ignored. Fields follow RFC 4180: quoted fields may contain commas, doubled
+ * quotes and line breaks. Blank lines are skipped.
+ *
+ * A row with missing columns comes back with those fields null and fails validation on its own;
+ * only a header without the required columns (from the constructor) or an unterminated quote
+ * (from hasNext, after the rows before it were returned) is an IllegalArgumentException.
+ */
+public class UserCsvReader implements Iterator<ImportUser>, Closeable {
+
+    private final BufferedReader reader;
+    private final int nameColumn;
+    private final int emailColumn;
+    private final int passwordColumn;
+    private List<String> next;
+    private boolean exhausted;
+
+    public UserCsvReader(InputStream input) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV is empty");
+        }
+        // Spreadsheet exports often start with a byte order mark
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+        this.nameColumn = column(header, "name");
+        this.emailColumn = column(header, "email");
+        this.passwordColumn = column(header, "password");
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !exhausted) {
+            next = readRecord();
+            exhausted = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public ImportUser next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<String> record = next;
+        next = null;
+        return new ImportUser(field(record, nameColumn), field(record, emailColumn), field(record, passwordColumn));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static int column(List<String> header, String name) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).trim().toLowerCase(Locale.ROOT).equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("CSV header has no " + name + " column");
+    }
+
+    private static String field(List<String> record, int column) {
+        return column < record.size() ? record.get(column) : null;
+    }
+
+    // Next non-blank record, or null at the end of input
+    private List<String> readRecord() {
+        try {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    if (fields.isEmpty() && field.length() == 0) {
+                        any = false;
+                        continue;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("CSV ends inside a quoted field");
+            }
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
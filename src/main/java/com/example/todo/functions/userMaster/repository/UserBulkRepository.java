@@ -0,0 +1,12 @@
+package com.example.todo.functions.userMaster.repository;
+
+import java.util.List;
+
+import com.example.todo.functions.userMaster.entity.User;
+
+//bulk operations that bypass the entity manager, mixed into UserRepository
+public interface UserBulkRepository {
+
+    //insert all users with one JDBC batch, assigning their ids
+    void insertAll(List<User> users);
+}
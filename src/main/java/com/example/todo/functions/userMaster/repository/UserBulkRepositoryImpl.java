@@ -0,0 +1,52 @@
+package com.example.todo.functions.userMaster.repository;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.todo.common.id.UuidV7Generator;
+import com.example.todo.functions.userMaster.entity.User;
+
+/**
+ * Saving users one by one through the entity manager costs a merge (a SELECT for the assigned
+ * id) and a flush per row. Ids are generated up front instead, and the rows go out as one JDBC
+ * batch, which rewriteBatchedStatements=true turns into multi-row INSERTs.
+ */
+public class UserBulkRepositoryImpl implements UserBulkRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO users (id, name, email, password, is_deleted, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserBulkRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> rows = new ArrayList<>(users.size());
+        for (User user : users) {
+            user.setId(UuidV7Generator.next());
+            user.setIsDeleted(false);
+            user.setCreated_at(now);
+            user.setUpdated_at(now);
+            rows.add(new Object[]{bytes(user.getId()), user.getName(), user.getEmail(), user.getPassword(), false, now, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
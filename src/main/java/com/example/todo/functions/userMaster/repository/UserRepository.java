@@ -1,37 +1,82 @@
 package com.example.todo.functions.userMaster.repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.todo.functions.userMaster.dto.UserSummary;
 import com.example.todo.functions.userMaster.entity.User;
 
-public interface  UserRepository extends JpaRepository<User, String> {
+import jakarta.persistence.QueryHint;
+
+public interface  UserRepository extends JpaRepository<User, UUID>, UserBulkRepository {
     
     //find all active users (not deleted)
     @Query("SELECT u FROM User u WHERE u.isDeleted = false")
     List<User> findAllActive();
     
+    //first keyset page of users in (created_at, id) order, without the password column;
+    //the pageable only limits the rows, no count query is run
+    @Query("SELECT new com.example.todo.functions.userMaster.dto.UserSummary(u.id, u.name, u.email, u.isDeleted, u.created_at, u.updated_at) " +
+            "FROM User u WHERE (:includeDeleted = true OR u.isDeleted = false) ORDER BY u.created_at, u.id")
+    List<UserSummary> findSummaries(@Param("includeDeleted") boolean includeDeleted, Pageable limit);
+
+    //next keyset page: users strictly after (createdAt, id)
+    @Query("SELECT new com.example.todo.functions.userMaster.dto.UserSummary(u.id, u.name, u.email, u.isDeleted, u.created_at, u.updated_at) " +
+            "FROM User u WHERE (:includeDeleted = true OR u.isDeleted = false) " +
+            "AND (u.created_at > :createdAt OR (u.created_at = :createdAt AND u.id > :id)) ORDER BY u.created_at, u.id")
+    List<UserSummary> findSummariesAfter(@Param("includeDeleted") boolean includeDeleted, @Param("createdAt") Timestamp createdAt,
+            @Param("id") UUID id, Pageable limit);
+
+    //stream users without the password column, fetching rows from MySQL in chunks
+    //(requires useCursorFetch=true on the JDBC url); must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.example.todo.functions.userMaster.dto.UserSummary(u.id, u.name, u.email, u.isDeleted, u.created_at, u.updated_at) " +
+            "FROM User u WHERE (:includeDeleted = true OR u.isDeleted = false) ORDER BY u.created_at, u.id")
+    Stream<UserSummary> streamSummaries(@Param("includeDeleted") boolean includeDeleted);
+
     //find a user by email
     User findByEmail(String email);
     
     //check if a user exists by email
     boolean existsByEmail(String email);
 
+    //which of the given emails are already registered, in one query
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     //soft delete a user by id
     @Modifying
     @Query("UPDATE User u SET u.isDeleted = true WHERE u.id = ?1")
-    void softDeleteUserById(String id);
+    void softDeleteUserById(UUID id);
 
     //hard delete a user by id
     @Modifying
     @Query("DELETE FROM User u WHERE u.id = ?1")
-    void hardDeleteUserById(String id);
+    void hardDeleteUserById(UUID id);
+
+    //replace a user's stored password hash
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = ?2 WHERE u.id = ?1")
+    void updatePasswordById(UUID id, String password);
 
     //update a user by id
     @Modifying
     @Query("UPDATE User u SET u.name = ?2, u.email = ?3 WHERE u.id = ?1")
-    void updateUserById(String id, String name, String email);
+    void updateUserById(UUID id, String name, String email);
 }
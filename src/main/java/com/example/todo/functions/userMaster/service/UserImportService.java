@@ -0,0 +1,155 @@
+package com.example.todo.functions.userMaster.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.todo.common.io.BulkItems;
+import com.example.todo.common.security.PasswordHasher;
+import com.example.todo.functions.userMaster.dto.ImportUser;
+import com.example.todo.functions.userMaster.dto.UserImportReport;
+import com.example.todo.functions.userMaster.entity.User;
+import com.example.todo.functions.userMaster.repository.UserRepository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Imports users from a stream of rows in batches. Each row is validated as it is read; emails
+ * are deduplicated within the batch, then checked against the database with one IN query per
+ * batch, and the remaining rows have their passwords hashed (already {bcrypt} hashed ones are
+ * kept) and are inserted in one transaction with a JDBC batch.
+ *
+ * Emails are compared case-insensitively, like MySQL's default collation of the unique email
+ * index. A user registered concurrently between the check and the insert makes the batch fail
+ * on the unique index; the batch is then checked and inserted once more.
+ */
+@Service
+public class UserImportService {
+
+    private final UserRepository userRepository;
+    private final Validator validator;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public UserImportService(UserRepository userRepository,
+                             Validator validator,
+                             PasswordHasher passwordHasher,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${user.import.batch-size:1000}") int batchSize) {
+        this.userRepository = userRepository;
+        this.validator = validator;
+        this.passwordHasher = passwordHasher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public UserImportReport importUsers(Iterator<ImportUser> rows) {
+        UserImportReport report = new UserImportReport();
+        // Pending rows keyed by lower-cased email, in row order
+        Map<String, Pending> batch = new LinkedHashMap<>();
+
+        for (BulkItems.Item<ImportUser> item : BulkItems.of(rows)) {
+            int index = item.index();
+            ImportUser row = item.value();
+            String error = item.unreadable() ? item.error() : validate(row);
+            if (error != null) {
+                report.addFailed(index, error);
+                continue;
+            }
+            String email = row.getEmail().trim();
+            String key = email.toLowerCase(Locale.ROOT);
+            if (batch.containsKey(key)) {
+                report.addDuplicate(index, "Email appears earlier in the import");
+                continue;
+            }
+
+            User user = new User();
+            user.setName(row.getName().trim());
+            user.setEmail(email);
+            user.setPassword(row.getPassword());
+            batch.put(key, new Pending(index, user));
+
+            if (batch.size() == batchSize) {
+                insertBatch(batch, report);
+            }
+        }
+        insertBatch(batch, report);
+
+        report.getRows().sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+        return report;
+    }
+
+    private String validate(ImportUser row) {
+        if (row == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<ImportUser>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        // The first message in field order, so reports are stable between runs
+        return violations.stream()
+                .sorted((a, b) -> a.getPropertyPath().toString().compareTo(b.getPropertyPath().toString()))
+                .findFirst().get().getMessage();
+    }
+
+    private void insertBatch(Map<String, Pending> batch, UserImportReport report) {
+        boolean hashed = false;
+        for (int attempt = 1; !batch.isEmpty(); attempt++) {
+            Set<String> registered = new HashSet<>();
+            List<String> emails = new ArrayList<>(batch.size());
+            batch.values().forEach(pending -> emails.add(pending.user().getEmail()));
+            for (String email : userRepository.findExistingEmails(emails)) {
+                registered.add(email.toLowerCase(Locale.ROOT));
+            }
+            for (String key : registered) {
+                Pending pending = batch.remove(key);
+                if (pending != null) {
+                    report.addDuplicate(pending.index(), "Email is already registered");
+                }
+            }
+
+            List<User> users = batch.values().stream().map(Pending::user).toList();
+            try {
+                // Hashed once the duplicates are out, and before the transaction starts
+                if (!hashed) {
+                    List<String> hashes = passwordHasher.hashAll(users.stream().map(User::getPassword).toList());
+                    for (int i = 0; i < users.size(); i++) {
+                        users.get(i).setPassword(hashes.get(i));
+                    }
+                    hashed = true;
+                }
+                transactionTemplate.executeWithoutResult(status -> userRepository.insertAll(users));
+                report.addCreated(users.size());
+                break;
+            } catch (DuplicateKeyException e) {
+                if (attempt == 2) {
+                    batch.values().forEach(pending -> report.addFailed(pending.index(), "Email is already registered"));
+                    break;
+                }
+            } catch (RuntimeException e) {
+                batch.values().forEach(pending -> report.addFailed(pending.index(), e.getMessage()));
+                break;
+            }
+        }
+        batch.clear();
+    }
+
+    private record Pending(int index, User user) {
+    }
+}
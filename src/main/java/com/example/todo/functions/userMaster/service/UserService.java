@@ -1,11 +1,22 @@
 package com.example.todo.functions.userMaster.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.todo.common.dto.CursorPage;
+import com.example.todo.common.security.PasswordHasher;
+import com.example.todo.functions.userMaster.dto.UserCursor;
+import com.example.todo.functions.userMaster.dto.UserSummary;
 import com.example.todo.functions.userMaster.entity.User;
 import com.example.todo.functions.userMaster.repository.UserRepository;
 
@@ -15,36 +26,85 @@ public class UserService {
 
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    //largest page getUsersByCursor will return
+    @Value("${user.page.max-size:500}")
+    private int maxPageSize;
     
     //retrieve all users (including soft-deleted)
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
     //retrieve all active users (not soft-deleted)
+    @Transactional(readOnly = true)
     public List<User> getAllActiveUsers() {
         return userRepository.findAllActive();
     }
     
+    //retrieve users without passwords one keyset slice at a time, in (created_at, id) order
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> getUsersByCursor(String cursor, int size, boolean includeDeleted) {
+        if (size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<UserSummary> rows;
+        if (cursor != null && !cursor.isEmpty()) {
+            UserCursor position = UserCursor.decode(cursor);
+            rows = userRepository.findSummariesAfter(includeDeleted, position.getCreatedAt(), position.getId(), limit);
+        } else {
+            rows = userRepository.findSummaries(includeDeleted, limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<UserSummary> content = hasNext ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = hasNext ? UserCursor.after(content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, size, hasNext, nextCursor);
+    }
+
+    //stream users without passwords; rows are projections, so nothing accumulates in the persistence context
+    @Transactional(readOnly = true)
+    public void streamUsers(boolean includeDeleted, Consumer<UserSummary> consumer) {
+        try (Stream<UserSummary> users = userRepository.streamSummaries(includeDeleted)) {
+            users.forEach(consumer);
+        }
+    }
+
     //retrieve a user by id
+    @Transactional(readOnly = true)
     public User getUserById(String id) {
-        return userRepository.findById(id).orElse(null);
+        UUID userId = parseId(id);
+        return userId == null ? null : userRepository.findById(userId).orElse(null);
     }
 
-    //create a new user
+    //create a new user; the password is hashed outside any transaction so no connection is
+    //held while it runs, and each repository call commits on its own
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User createUser(User user) {
         if (userRepository.existsByEmail(user.getEmail())) {
             return null;
         }
 
         user.setId(null); 
+        user.setPassword(passwordHasher.hash(user.getPassword()));
         return userRepository.save(user);
     }
 
-    //update an existing user
+    //update an existing user (password hashed like createUser)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User updateUser(String id, User user) {
-        if (userRepository.existsById(id)) {
-            user.setId(id);
+        UUID userId = parseId(id);
+        User existing = userId == null ? null : userRepository.findById(userId).orElse(null);
+        if (existing != null) {
+            user.setId(userId);
+            //the cursor is keyed on created_at, so an update must not move the user
+            user.setCreated_at(existing.getCreated_at());
+            user.setPassword(passwordHasher.hash(user.getPassword()));
             return userRepository.save(user);
         }
         return null;
@@ -52,15 +112,26 @@ public class UserService {
 
     //soft delete a user by id (existing user)
     public void softDeleteUser(String id) {
-        if (userRepository.existsById(id)) {
-            userRepository.softDeleteUserById(id);
+        UUID userId = parseId(id);
+        if (userId != null && userRepository.existsById(userId)) {
+            userRepository.softDeleteUserById(userId);
         }
     }
 
     //hard delete a user by id (existing user)
     public void hardDeleteUser(String id) {
-        if (userRepository.existsById(id)) {
-            userRepository.deleteById(id);
+        UUID userId = parseId(id);
+        if (userId != null && userRepository.existsById(userId)) {
+            userRepository.deleteById(userId);
+        }
+    }
+
+    //ids stay strings at the API; one that is not a UUID cannot match any user
+    private static UUID parseId(String id) {
+        try {
+            return id == null ? null : UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
@@ -0,0 +1,11 @@
+-- Fills character_classes.sprite_file_name for rows written before the column existed, on MySQL 8.
+-- Not run automatically: ddl-auto=update adds the column and its index on start, new writes keep it
+-- filled, and this backfills the rest. Until it has run, file reference checks only recognise old rows
+-- whose sprite_path is /uploads/<name>, /api/v1/files/<name> or the bare name, so enable
+-- file.orphan-sweep only afterwards.
+
+-- Backfill in short transactions; repeat until it reports 0 rows affected
+UPDATE character_classes
+SET sprite_file_name = SUBSTRING_INDEX(sprite_path, '/', -1)
+WHERE sprite_file_name IS NULL AND sprite_path IS NOT NULL AND sprite_path <> ''
+LIMIT 5000;
@@ -0,0 +1,31 @@
+-- Moves users.id from VARCHAR(36) to BINARY(16) on MySQL 8 without taking the table offline.
+-- Not run automatically: apply the steps by hand (or through gh-ost / pt-online-schema-change)
+-- in order, and deploy the BINARY(16) build only after step 4.
+--
+-- Existing ids keep their value, only their storage changes, so URLs and clients holding ids
+-- keep working. They remain random (v4) and stay where they are in the clustered index; rows
+-- created afterwards get time-ordered v7 ids and append at its right edge.
+-- UUID_TO_BIN is used without the swap flag: v7 ids already begin with their timestamp.
+
+-- 1. Shadow column, instant on MySQL 8.0.29+ (no table rebuild)
+ALTER TABLE users ADD COLUMN id_bin BINARY(16) NULL, ALGORITHM=INSTANT;
+
+-- 2. Keep the shadow column filled for rows the running VARCHAR build inserts meanwhile
+CREATE TRIGGER users_id_bin_insert BEFORE INSERT ON users
+    FOR EACH ROW SET NEW.id_bin = UUID_TO_BIN(NEW.id);
+
+-- 3. Backfill in short transactions; repeat until it reports 0 rows affected
+UPDATE users SET id_bin = UUID_TO_BIN(id) WHERE id_bin IS NULL LIMIT 5000;
+
+-- 4. Swap the primary key during the deploy window: stop writers of the VARCHAR build, then
+--    run the rebuild (online DDL, concurrent DML allowed) and start the BINARY(16) build
+DROP TRIGGER users_id_bin_insert;
+UPDATE users SET id_bin = UUID_TO_BIN(id) WHERE id_bin IS NULL;
+ALTER TABLE users
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    CHANGE COLUMN id_bin id BINARY(16) NOT NULL,
+    ADD PRIMARY KEY (id),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Reading ids by hand afterwards: SELECT BIN_TO_UUID(id), name FROM users;
@@ -0,0 +1,88 @@
+package com.example.todo.bench;
+
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.CharacterClassification;
+import com.example.todo.functions.characterMaster.enums.CharacterType;
+import com.example.todo.functions.characterMaster.repository.CharacterBulkRepositoryImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-row insert throughput of the single-item create path (one transaction and one IDENTITY
+ * INSERT per character) against the bulk path (CharacterBulkRepositoryImpl.insertAll, one
+ * transaction and one JDBC batch per character.bulk.batch-size rows). The single-item side
+ * skips Hibernate, so it is a best case for that path.
+ *
+ * Runs against in-memory H2 by default; pass -Dbench.url=jdbc:mysql://...?rewriteBatchedStatements=true
+ * (with bench.user and bench.password) to measure MySQL, where every commit is a log flush and
+ * the gap is far wider. Not a test (surefire does not pick it up); run its main method with the
+ * test classpath.
+ */
+public class CharacterBulkInsertBenchmark {
+
+	private static final int ROWS = Integer.getInteger("bench.rows", 20_000);
+
+	private static final int BATCH_SIZE = Integer.getInteger("bench.batch-size", 500);
+
+	public static void main(String[] args) {
+		String url = System.getProperty("bench.url", "jdbc:h2:mem:character_bulk;MODE=MySQL;DB_CLOSE_DELAY=-1");
+		SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url,
+				System.getProperty("bench.user", "sa"), System.getProperty("bench.password", ""), true);
+		try {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+			TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+			CharacterBulkRepositoryImpl repository = new CharacterBulkRepositoryImpl(jdbcTemplate);
+
+			// Warm up both paths before measuring
+			run(jdbcTemplate, transactionTemplate, repository, 1, ROWS / 10);
+			run(jdbcTemplate, transactionTemplate, repository, BATCH_SIZE, ROWS / 10);
+
+			double single = run(jdbcTemplate, transactionTemplate, repository, 1, ROWS);
+			double bulk = run(jdbcTemplate, transactionTemplate, repository, BATCH_SIZE, ROWS);
+			System.out.printf(Locale.ROOT, "single-item %,.0f rows/s, bulk (batch %d) %,.0f rows/s, %.1fx%n",
+					single, BATCH_SIZE, bulk, bulk / single);
+		} finally {
+			dataSource.destroy();
+		}
+	}
+
+	// Rows per second inserting rows characters, batchSize per transaction
+	private static double run(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+							  CharacterBulkRepositoryImpl repository, int batchSize, int rows) {
+		jdbcTemplate.execute("DROP TABLE IF EXISTS character_classes");
+		jdbcTemplate.execute("CREATE TABLE character_classes (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+				+ "name VARCHAR(50) NOT NULL, description TEXT, type VARCHAR(50) NOT NULL, classification VARCHAR(50) NOT NULL, "
+				+ "sprite_path VARCHAR(255), base_health INT, base_attack INT, base_magic INT, base_physical_defense INT, "
+				+ "base_magical_defense INT, base_speed INT, is_deleted BOOLEAN NOT NULL, created_at TIMESTAMP NOT NULL, "
+				+ "updated_at TIMESTAMP NOT NULL)");
+		jdbcTemplate.execute("CREATE INDEX idx_character_deleted_name ON character_classes (is_deleted, name)");
+
+		long start = System.nanoTime();
+		for (int from = 0; from < rows; from += batchSize) {
+			List<GameCharacter> batch = new ArrayList<>(batchSize);
+			for (int i = from; i < Math.min(from + batchSize, rows); i++) {
+				batch.add(character(i));
+			}
+			transactionTemplate.executeWithoutResult(status -> repository.insertAll(batch));
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		return rows / seconds;
+	}
+
+	private static GameCharacter character(int i) {
+		GameCharacter character = new GameCharacter();
+		character.setName("Character " + i);
+		character.setDescription("Seeded by the bulk insert benchmark");
+		character.setType(CharacterType.NPC);
+		character.setClassification(CharacterClassification.values()[i % CharacterClassification.values().length]);
+		character.setSpritePath("/api/v1/files/sprite-" + (i % 100) + ".svg");
+		character.setIsDeleted(false);
+		return character;
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.todo.bench;
+
+import com.example.todo.functions.characterMaster.dto.ReadCharacter;
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.CharacterClassification;
+import com.example.todo.functions.characterMaster.enums.CharacterType;
+import com.example.todo.functions.characterMaster.mapper.CharacterMapper;
+import org.springframework.beans.BeanUtils;
+
+import java.sql.Timestamp;
+import java.util.Locale;
+
+/**
+ * Compares CharacterMapper with the reflective BeanUtils.copyProperties it replaced for the
+ * GameCharacter to ReadCharacter copy done for every item of every response.
+ *
+ * Not a test (surefire does not pick it up); run its main method with the test classpath.
+ */
+public class CharacterMapperBenchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int MEASURED_ROUNDS = 10;
+	private static final int COPIES_PER_ROUND = 1_000_000;
+
+	// Keeps results reachable so the JIT cannot elide the copies
+	private static final ReadCharacter[] RESULTS = new ReadCharacter[1024];
+
+	public static void main(String[] args) {
+		GameCharacter character = new GameCharacter();
+		character.setId(1L);
+		character.setType(CharacterType.HERO);
+		character.setClassification(CharacterClassification.Elf);
+		character.setName("Legolas");
+		character.setDescription("Prince of Mirkwood");
+		character.setSpritePath("/uploads/legolas.svg");
+		character.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+		character.setUpdatedAt(character.getCreatedAt());
+
+		long sink = 0;
+		for (int round = 0; round < WARMUP_ROUNDS; round++) {
+			sink += reflective(character) + mapped(character);
+		}
+
+		long reflectiveNanos = 0;
+		long mappedNanos = 0;
+		for (int round = 0; round < MEASURED_ROUNDS; round++) {
+			long start = System.nanoTime();
+			sink += reflective(character);
+			reflectiveNanos += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			sink += mapped(character);
+			mappedNanos += System.nanoTime() - start;
+		}
+
+		double copies = (double) MEASURED_ROUNDS * COPIES_PER_ROUND;
+		System.out.printf(Locale.ROOT, "BeanUtils.copyProperties %.1f ns/op, CharacterMapper %.1f ns/op (%d)%n",
+				reflectiveNanos / copies, mappedNanos / copies, sink);
+	}
+
+	private static long reflective(GameCharacter character) {
+		long sink = 0;
+		for (int i = 0; i < COPIES_PER_ROUND; i++) {
+			ReadCharacter dto = new ReadCharacter();
+			BeanUtils.copyProperties(character, dto);
+			RESULTS[i & (RESULTS.length - 1)] = dto;
+			sink += dto.getBaseHealth();
+		}
+		return sink;
+	}
+
+	private static long mapped(GameCharacter character) {
+		long sink = 0;
+		for (int i = 0; i < COPIES_PER_ROUND; i++) {
+			ReadCharacter dto = CharacterMapper.toReadCharacter(character);
+			RESULTS[i & (RESULTS.length - 1)] = dto;
+			sink += dto.getBaseHealth();
+		}
+		return sink;
+	}
+}
@@ -0,0 +1,104 @@
+package com.example.todo.bench;
+
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.NameSearchMode;
+import com.example.todo.functions.characterMaster.index.CharacterNameIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares CharacterNameIndex lookups with the work lower(name) LIKE '%term%' has to do, i.e.
+ * lower-casing and scanning every name, at 100k and 1M characters.
+ *
+ * Not a test (surefire does not pick it up); run its main method with the test classpath.
+ */
+public class CharacterNameIndexBenchmark {
+
+	private static final String[] SYLLABLES = {
+			"ar", "bel", "cor", "dra", "el", "fin", "gor", "hal", "is", "jor", "kal", "lor",
+			"mor", "nar", "or", "pel", "quin", "ros", "sil", "thar", "ul", "val", "wyn", "zed"
+	};
+
+	private static final String[] TERMS = {"thar", "drael", "zedul", "mor", "kalwyn"};
+
+	private static final int ITERATIONS = 50;
+
+	public static void main(String[] args) {
+		for (int rows : new int[]{100_000, 1_000_000}) {
+			run(rows);
+		}
+	}
+
+	private static void run(int rows) {
+		Random random = new Random(42);
+		List<String> names = new ArrayList<>(rows);
+		CharacterNameIndex index = new CharacterNameIndex(true, 0.3);
+		index.beginRebuild();
+		for (int id = 1; id <= rows; id++) {
+			String name = randomName(random);
+			names.add(name);
+			GameCharacter character = new GameCharacter();
+			character.setId((long) id);
+			character.setName(name);
+			index.load(character);
+		}
+		index.finishRebuild();
+
+		long matches = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			for (String term : TERMS) {
+				matches += scan(names, term) + index.find(term, NameSearchMode.CONTAINS).size();
+			}
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			for (String term : TERMS) {
+				matches += scan(names, term);
+			}
+		}
+		double scanMillis = (System.nanoTime() - start) / 1e6 / (ITERATIONS * TERMS.length);
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			for (String term : TERMS) {
+				matches += index.find(term, NameSearchMode.CONTAINS).size();
+			}
+		}
+		double indexMillis = (System.nanoTime() - start) / 1e6 / (ITERATIONS * TERMS.length);
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			for (String term : TERMS) {
+				matches += index.find(term, NameSearchMode.PREFIX).size();
+			}
+		}
+		double prefixMillis = (System.nanoTime() - start) / 1e6 / (ITERATIONS * TERMS.length);
+
+		System.out.printf(Locale.ROOT, "%,d rows: LIKE-style scan %.3f ms/op, trigram contains %.3f ms/op, trigram prefix %.3f ms/op (%d)%n",
+				rows, scanMillis, indexMillis, prefixMillis, matches);
+	}
+
+	private static int scan(List<String> names, String term) {
+		int found = 0;
+		for (String name : names) {
+			if (name.toLowerCase(Locale.ROOT).contains(term)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	private static String randomName(Random random) {
+		StringBuilder name = new StringBuilder();
+		int syllables = 2 + random.nextInt(3);
+		for (int i = 0; i < syllables; i++) {
+			name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+		return name.toString();
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.todo.bench;
+
+import com.example.todo.common.id.UuidV7Generator;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput of the users table with random UUID strings in a VARCHAR(36) key, the same
+ * random ids as BINARY(16), and time-ordered (v7) ids as BINARY(16).
+ *
+ * Runs against in-memory H2 by default; pass -Dbench.url=jdbc:mysql://... (with bench.user and
+ * bench.password) to measure InnoDB, where the random keys' page splits and cache misses show
+ * once the table outgrows the buffer pool. Not a test (surefire does not pick it up); run its
+ * main method with the test classpath.
+ */
+public class UserIdInsertBenchmark {
+
+	private static final int ROWS = Integer.getInteger("bench.rows", 500_000);
+
+	private static final int BATCH_SIZE = 1000;
+
+	public static void main(String[] args) throws SQLException {
+		String url = System.getProperty("bench.url", "jdbc:h2:mem:user_ids;MODE=MySQL;DB_CLOSE_DELAY=-1");
+		try (Connection connection = DriverManager.getConnection(url,
+				System.getProperty("bench.user", "sa"), System.getProperty("bench.password", ""))) {
+			connection.setAutoCommit(false);
+			run(connection, "VARCHAR(36) random", "VARCHAR(36)", () -> UUID.randomUUID().toString());
+			run(connection, "BINARY(16) random", "BINARY(16)", () -> bytes(UUID.randomUUID()));
+			run(connection, "BINARY(16) v7", "BINARY(16)", () -> bytes(UuidV7Generator.next()));
+		}
+	}
+
+	private static void run(Connection connection, String label, String idType, Supplier<Object> ids) throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE IF EXISTS bench_users");
+			statement.execute("CREATE TABLE bench_users (id " + idType + " NOT NULL PRIMARY KEY, " +
+					"name VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL, created_at TIMESTAMP NOT NULL)");
+			statement.execute("CREATE INDEX idx_bench_users_created ON bench_users (created_at, id)");
+		}
+		connection.commit();
+
+		long start = System.nanoTime();
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO bench_users (id, name, email, created_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)")) {
+			for (int i = 1; i <= ROWS; i++) {
+				insert.setObject(1, ids.get());
+				insert.setString(2, "user-" + i);
+				insert.setString(3, "user" + i + "@example.com");
+				insert.addBatch();
+				if (i % BATCH_SIZE == 0) {
+					insert.executeBatch();
+					connection.commit();
+				}
+			}
+			insert.executeBatch();
+			connection.commit();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf(Locale.ROOT, "%-20s %,d rows in %.2f s, %,.0f rows/s%n", label, ROWS, seconds, ROWS / seconds);
+	}
+
+	private static byte[] bytes(UUID id) {
+		return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+	}
+}
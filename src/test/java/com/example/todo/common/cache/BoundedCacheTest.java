@@ -0,0 +1,61 @@
+package com.example.todo.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BoundedCacheTest {
+
+	@Test
+	void loadsOnceAndCountsHitsAndMisses() {
+		BoundedCache<Long, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1));
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.get(1L, id -> "character-" + loads.incrementAndGet());
+		String value = cache.get(1L, id -> "character-" + loads.incrementAndGet());
+
+		assertEquals("character-1", value);
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.stats().hits());
+		assertEquals(1, cache.stats().misses());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedEntryWhenFull() {
+		BoundedCache<Long, String> cache = new BoundedCache<>(2, Duration.ofMinutes(1));
+		cache.put(1L, "a");
+		cache.put(2L, "b");
+		cache.getIfPresent(1L);
+		cache.put(3L, "c");
+
+		assertNull(cache.getIfPresent(2L));
+		assertEquals("a", cache.getIfPresent(1L));
+		assertEquals(1, cache.stats().evictions());
+	}
+
+	@Test
+	void expiresEntriesAfterTtl() {
+		BoundedCache<Long, String> cache = new BoundedCache<>(10, Duration.ZERO);
+		cache.put(1L, "a");
+
+		assertNull(cache.getIfPresent(1L));
+		assertEquals(1, cache.stats().expirations());
+	}
+
+	@Test
+	void doesNotStoreValueLoadedAcrossAnInvalidation() {
+		BoundedCache<Long, String> cache = new BoundedCache<>(10, Duration.ofMinutes(1));
+
+		String stale = cache.get(1L, id -> {
+			cache.invalidate(id);
+			return "stale";
+		});
+
+		assertEquals("stale", stale);
+		assertNull(cache.getIfPresent(1L));
+	}
+}
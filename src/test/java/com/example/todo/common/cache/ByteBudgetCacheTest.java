@@ -0,0 +1,65 @@
+package com.example.todo.common.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ByteBudgetCacheTest {
+
+	@Test
+	void evictsLeastRecentlyUsedEntriesToStayWithinBudget() {
+		ByteBudgetCache<String> cache = new ByteBudgetCache<>(10, 10, false);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.get("a", key -> load(loads, 4));
+		cache.get("b", key -> load(loads, 4));
+		cache.get("a", key -> load(loads, 4));
+		cache.get("c", key -> load(loads, 4));
+
+		ByteCacheStats stats = cache.stats();
+		assertEquals(8, stats.bytesResident());
+		assertEquals(2, stats.entries());
+		assertEquals(1, stats.evictions());
+
+		cache.get("a", key -> load(loads, 4));
+		cache.get("b", key -> load(loads, 4));
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void neverCachesEntriesOverTheEntryLimit() {
+		ByteBudgetCache<String> cache = new ByteBudgetCache<>(100, 8, true);
+		AtomicInteger loads = new AtomicInteger();
+
+		ByteBuffer first = cache.get("big", key -> load(loads, 16));
+		cache.get("big", key -> load(loads, 16));
+
+		assertEquals(16, first.remaining());
+		assertTrue(first.isReadOnly());
+		assertEquals(2, loads.get());
+		assertEquals(0, cache.stats().bytesResident());
+	}
+
+	@Test
+	void doesNotStoreValueLoadedAcrossInvalidation() {
+		ByteBudgetCache<String> cache = new ByteBudgetCache<>(100, 100, false);
+
+		cache.get("a", key -> {
+			cache.invalidate("a");
+			return new byte[4];
+		});
+
+		assertEquals(0, cache.stats().entries());
+		assertThrows(IllegalArgumentException.class, () -> new ByteBudgetCache<String>(0, 1, false));
+	}
+
+	private static byte[] load(AtomicInteger loads, int size) {
+		loads.incrementAndGet();
+		return new byte[size];
+	}
+}
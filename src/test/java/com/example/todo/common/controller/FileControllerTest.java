@@ -0,0 +1,199 @@
+package com.example.todo.common.controller;
+
+import com.example.todo.common.service.BatchUploadService;
+import com.example.todo.common.service.FileStorageService;
+import com.example.todo.common.service.SpriteCacheControl;
+import com.example.todo.common.service.SpriteSheetService;
+import com.example.todo.common.storage.LocalSpriteStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class FileControllerTest {
+
+	private static final String SPRITE = "<svg xmlns=\"http://www.w3.org/2000/svg\"><rect width=\"8\" height=\"8\"/></svg>";
+
+	@TempDir
+	Path uploadDir;
+
+	@TempDir
+	Path stagingDir;
+
+	private LocalSpriteStorage storage;
+
+	private FileStorageService fileStorageService;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		Files.writeString(uploadDir.resolve("knight.svg"), SPRITE);
+		storage = new LocalSpriteStorage(uploadDir.toString(), stagingDir.toString());
+		fileStorageService = new FileStorageService(storage, stagingDir.toString(), 100, Duration.ofMinutes(1),
+				true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), false, List.of());
+		mockMvc = MockMvcBuilders.standaloneSetup(new FileController(fileStorageService,
+				new SpriteSheetService(fileStorageService, 10, DataSize.ofMegabytes(1), DataSize.ofKilobytes(256)), new SpriteCacheControl(Duration.ofDays(365)),
+				new BatchUploadService(fileStorageService, Optional.empty(), 10, DataSize.ofMegabytes(1), 1, 1))).build();
+	}
+
+	@Test
+	void servesWholeFileWithCachedMetadata() throws Exception {
+		mockMvc.perform(get("/api/v1/files/knight.svg"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/svg+xml"))
+				.andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+				.andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, SPRITE.length()))
+				.andExpect(content().string(SPRITE));
+	}
+
+	@Test
+	void fingerprintedNamesAreImmutableAndLegacyNamesRevalidate() throws Exception {
+		String fileName = fileStorageService.storeFile(new MockMultipartFile("file", "orc.svg", "image/svg+xml", SPRITE.getBytes(StandardCharsets.UTF_8)));
+
+		mockMvc.perform(get("/api/v1/files/" + fileName))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+
+		String eTag = mockMvc.perform(get("/api/v1/files/knight.svg"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mockMvc.perform(get("/api/v1/files/knight.svg").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+	}
+
+	@Test
+	void servesGzipVariantOnlyWhenAccepted() throws Exception {
+		String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\">\n" + "  <rect width=\"8\" height=\"8\"/>\n".repeat(50) + "</svg>\n";
+		String fileName = fileStorageService.storeFile(new MockMultipartFile("file", "grid.svg", "image/svg+xml", svg.getBytes(StandardCharsets.UTF_8)));
+		String minified = svg.replaceAll(">\\s*\\n\\s*<", "><").strip();
+		assertEquals(svg, Files.readString(storage.findStoredPath(fileName)));
+
+		MvcResult gzipped = mockMvc.perform(get("/api/v1/files/" + fileName).header(HttpHeaders.ACCEPT_ENCODING, "br;q=1, gzip;q=0.8"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/svg+xml"))
+				.andReturn();
+		try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+			assertEquals(minified, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+		}
+
+		mockMvc.perform(get("/api/v1/files/" + fileName).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+				.andExpect(content().string(svg));
+	}
+
+	@Test
+	void combinesSvgsIntoSymbolSheet() throws Exception {
+		Files.writeString(uploadDir.resolve("mage.svg"), "<?xml version=\"1.0\"?><svg xmlns=\"http://www.w3.org/2000/svg\" width=\"16px\" height=\"32\" stroke-width=\"2\"><circle r=\"4\"/></svg>");
+
+		MvcResult result = mockMvc.perform(get("/api/v1/files/sheet").param("names", "mage.svg", "knight.svg", "mage.svg"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/svg+xml"))
+				.andExpect(content().string("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">" +
+						"<symbol id=\"sprite-knight\"><rect width=\"8\" height=\"8\"/></symbol>" +
+						"<symbol id=\"sprite-mage\" viewBox=\"0 0 16 32\"><circle r=\"4\"/></symbol></svg>"))
+				.andReturn();
+
+		mockMvc.perform(get("/api/v1/files/sheet").param("names", "knight.svg,mage.svg")
+						.header(HttpHeaders.IF_NONE_MATCH, result.getResponse().getHeader(HttpHeaders.ETAG)))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void sheetWithAMissingFileIsNotFoundEvenOnceCached() throws Exception {
+		mockMvc.perform(get("/api/v1/files/sheet").param("names", "knight.svg,ghost.svg"))
+				.andExpect(status().isNotFound());
+
+		Files.writeString(uploadDir.resolve("mage.svg"), SPRITE);
+		mockMvc.perform(get("/api/v1/files/sheet").param("names", "knight.svg,mage.svg"))
+				.andExpect(status().isOk());
+		fileStorageService.deleteFile("mage.svg");
+		mockMvc.perform(get("/api/v1/files/sheet").param("names", "knight.svg,mage.svg"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void bundlesOtherFilesAsZip() throws Exception {
+		Files.write(uploadDir.resolve("orc.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G'});
+
+		MvcResult result = mockMvc.perform(get("/api/v1/files/sheet").param("names", "knight.svg,orc.png"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/zip"))
+				.andReturn();
+
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+			assertEquals("knight.svg", zip.getNextEntry().getName());
+			assertEquals(SPRITE, new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+			assertEquals("orc.png", zip.getNextEntry().getName());
+		}
+	}
+
+	@Test
+	void servesSingleRangeAsPartialContent() throws Exception {
+		mockMvc.perform(get("/api/v1/files/knight.svg").header(HttpHeaders.RANGE, "bytes=5-7"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-7/" + SPRITE.length()))
+				.andExpect(content().string(SPRITE.substring(5, 8)));
+
+		mockMvc.perform(get("/api/v1/files/knight.svg").header(HttpHeaders.RANGE, "bytes=-6"))
+				.andExpect(status().isPartialContent())
+				.andExpect(content().string(SPRITE.substring(SPRITE.length() - 6)));
+	}
+
+	@Test
+	void rejectsRangeBeyondEndOfFile() throws Exception {
+		mockMvc.perform(get("/api/v1/files/knight.svg").header(HttpHeaders.RANGE, "bytes=1000-"))
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + SPRITE.length()));
+	}
+
+	@Test
+	void ignoresRangeWhenIfRangeIsStale() throws Exception {
+		MvcResult first = mockMvc.perform(get("/api/v1/files/knight.svg")).andReturn();
+		String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/v1/files/knight.svg").header(HttpHeaders.RANGE, "bytes=0-3").header(HttpHeaders.IF_RANGE, etag))
+				.andExpect(status().isPartialContent());
+		mockMvc.perform(get("/api/v1/files/knight.svg").header(HttpHeaders.RANGE, "bytes=0-3").header(HttpHeaders.IF_RANGE, "\"stale\""))
+				.andExpect(status().isOk())
+				.andExpect(content().string(SPRITE));
+	}
+
+	@Test
+	void answersConditionalAndHeadRequestsWithoutBody() throws Exception {
+		String etag = mockMvc.perform(get("/api/v1/files/knight.svg")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/v1/files/knight.svg").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+		MvcResult result = mockMvc.perform(head("/api/v1/files/knight.svg")).andExpect(status().isOk()).andReturn();
+		assertEquals(0, result.getResponse().getContentAsByteArray().length);
+		assertEquals(SPRITE.getBytes(StandardCharsets.UTF_8).length, result.getResponse().getContentLengthLong());
+	}
+}
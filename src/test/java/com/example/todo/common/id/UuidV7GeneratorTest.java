@@ -0,0 +1,38 @@
+package com.example.todo.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidV7GeneratorTest {
+
+	@Test
+	void idsCarryTheTimestampAndVersionBits() {
+		long before = System.currentTimeMillis();
+		UUID id = UuidV7Generator.next();
+		long after = System.currentTimeMillis();
+
+		assertEquals(7, id.version());
+		assertEquals(2, id.variant());
+		long millis = id.getMostSignificantBits() >>> 16;
+		assertTrue(millis >= before && millis <= after + 1);
+	}
+
+	@Test
+	void idsIncreaseInByteOrderEvenWithinOneMillisecond() {
+		List<UUID> ids = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			ids.add(UuidV7Generator.next());
+		}
+
+		// The string form sorts like the unsigned bytes of BINARY(16)
+		for (int i = 1; i < ids.size(); i++) {
+			assertTrue(ids.get(i - 1).toString().compareTo(ids.get(i).toString()) < 0);
+		}
+	}
+}
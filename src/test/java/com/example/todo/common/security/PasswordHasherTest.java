@@ -0,0 +1,85 @@
+package com.example.todo.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHasherTest {
+
+	@Test
+	void hashesWithBcryptAndStillAcceptsLegacyPlainTextPasswords() {
+		PasswordHasher hasher = new PasswordHasher(4, 1, 4, Duration.ofSeconds(5), 1, 4);
+		try {
+			String hash = hasher.hash("secret");
+
+			assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+			assertTrue(hasher.matches("secret", hash));
+			assertFalse(hasher.matches("wrong", hash));
+			assertFalse(hasher.needsUpgrade(hash));
+
+			assertTrue(hasher.matches("secret", "secret"));
+			assertFalse(hasher.matches("wrong", "secret"));
+			assertTrue(hasher.needsUpgrade("secret"));
+		} finally {
+			hasher.shutdown();
+		}
+	}
+
+	@Test
+	void bulkHashingKeepsExistingHashes() {
+		PasswordHasher hasher = new PasswordHasher(4, 1, 1, Duration.ofSeconds(5), 1, 1);
+		try {
+			String existing = hasher.hash("kept");
+
+			List<String> hashes = hasher.hashAll(List.of("a", existing, "b", "c", "d"));
+
+			assertEquals(existing, hashes.get(1));
+			assertTrue(hasher.matches("a", hashes.get(0)));
+			assertTrue(hasher.matches("d", hashes.get(4)));
+		} finally {
+			hasher.shutdown();
+		}
+	}
+
+	@Test
+	void loginsKeepWorkingWhileAnImportIsHashing() throws Exception {
+		PasswordHasher hasher = new PasswordHasher(8, 1, 1, Duration.ofSeconds(5), 1, 1);
+		ExecutorService importer = Executors.newSingleThreadExecutor();
+		try {
+			String stored = hasher.hash("secret");
+			List<String> passwords = IntStream.range(0, 200).mapToObj(i -> "password" + i).toList();
+			Future<List<String>> importing = importer.submit(() -> hasher.hashAll(passwords));
+
+			for (int i = 0; i < 5; i++) {
+				assertTrue(hasher.matches("secret", stored));
+			}
+			assertFalse(importing.isDone());
+
+			importing.cancel(true);
+		} finally {
+			importer.shutdownNow();
+			hasher.shutdown();
+		}
+	}
+
+	@Test
+	void slowHashingIsRejectedInsteadOfBlockingTheCaller() {
+		PasswordHasher hasher = new PasswordHasher(12, 1, 1, Duration.ofMillis(1), 1, 1);
+		try {
+			assertThrows(RejectedExecutionException.class, () -> hasher.hash("secret"));
+		} finally {
+			hasher.shutdown();
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package com.example.todo.common.service;
+
+import com.example.todo.common.dto.BatchUploadResult;
+import com.example.todo.common.storage.LocalSpriteStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchUploadServiceTest {
+
+	@TempDir
+	Path uploadDir;
+
+	@TempDir
+	Path stagingDir;
+
+	// Sprite file name by character id, standing in for the characters table
+	private final Map<Long, String> sprites = new HashMap<>();
+	private final List<Map<Long, String>> assignCalls = new ArrayList<>();
+
+	private FileStorageService fileStorageService;
+	private BatchUploadService batchUploadService;
+
+	@BeforeEach
+	void setUp() {
+		FileReferenceCounter counter = fileName -> sprites.values().stream().filter(fileName::equals).count();
+		SpriteAssigner assigner = fileNamesById -> {
+			assignCalls.add(fileNamesById);
+			Map<Long, String> previous = new HashMap<>();
+			fileNamesById.forEach((id, fileName) -> {
+				if (sprites.containsKey(id)) {
+					previous.put(id, sprites.put(id, fileName));
+				}
+			});
+			return previous;
+		};
+		fileStorageService = new FileStorageService(new LocalSpriteStorage(uploadDir.toString(), stagingDir.toString()),
+				stagingDir.toString(), 100, Duration.ofMinutes(1), true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64),
+				false, List.of(counter));
+		batchUploadService = new BatchUploadService(fileStorageService, Optional.of(assigner), 10, DataSize.ofKilobytes(1), 2, 1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		batchUploadService.shutdown();
+	}
+
+	@Test
+	void storesEachFileAndReportsFailuresPerFile() {
+		List<MultipartFile> files = List.of(
+				sprite("knight.svg", "<svg><rect/></svg>"),
+				sprite("orc.png", "<svg/>"),
+				sprite("empty.svg", ""),
+				sprite("huge.svg", "<svg>" + "x".repeat(2000) + "</svg>"),
+				sprite("mage.svg", "<svg><circle/></svg>"));
+
+		List<BatchUploadResult> results = batchUploadService.uploadBatch(files, null);
+
+		assertEquals(5, results.size());
+		assertNull(results.get(0).getError());
+		assertTrue(results.get(0).getFileName().matches("[0-9a-f]{64}\\.svg"));
+		assertEquals(results.get(0).getFileName(), results.get(0).getSha256() + ".svg");
+		assertNotNull(fileStorageService.describeFile(results.get(0).getFileName()));
+		assertNotNull(results.get(1).getError());
+		assertNull(results.get(1).getFileName());
+		assertEquals("File is empty", results.get(2).getError());
+		assertNotNull(results.get(3).getError());
+		assertNull(results.get(4).getError());
+		assertTrue(assignCalls.isEmpty());
+	}
+
+	@Test
+	void assignsSpritesInOneCallAndDeletesReplacedFiles() {
+		String old = fileStorageService.storeFile(sprite("old.svg", "<svg><path/></svg>"));
+		sprites.put(1L, old);
+		sprites.put(2L, null);
+
+		List<BatchUploadResult> results = batchUploadService.uploadBatch(List.of(
+				sprite("knight.svg", "<svg><rect/></svg>"),
+				sprite("mage.svg", "<svg><circle/></svg>"),
+				sprite("ghost.svg", "<svg><ellipse/></svg>")), List.of(1L, 2L, 99L));
+
+		assertEquals(1, assignCalls.size());
+		assertEquals(results.get(0).getFileName(), sprites.get(1L));
+		assertEquals(results.get(1).getFileName(), sprites.get(2L));
+		assertEquals("Character not found with id: 99", results.get(2).getError());
+		assertNull(results.get(2).getFileName());
+		assertThrows(RuntimeException.class, () -> fileStorageService.describeFile(old));
+	}
+
+	@Test
+	void rejectsCharacterIdsThatDoNotMatchTheFiles() {
+		List<MultipartFile> files = List.of(sprite("knight.svg", "<svg/>"), sprite("mage.svg", "<svg><g/></svg>"));
+
+		assertThrows(IllegalArgumentException.class, () -> batchUploadService.uploadBatch(files, List.of(1L)));
+		assertThrows(IllegalArgumentException.class, () -> batchUploadService.uploadBatch(files, List.of(1L, 1L)));
+	}
+
+	private static MockMultipartFile sprite(String name, String content) {
+		return new MockMultipartFile("files", name, "image/svg+xml", content.getBytes(StandardCharsets.UTF_8));
+	}
+}
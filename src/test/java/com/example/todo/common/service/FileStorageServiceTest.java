@@ -0,0 +1,196 @@
+package com.example.todo.common.service;
+
+import com.example.todo.common.cache.ByteCacheStats;
+import com.example.todo.common.dto.StagedFile;
+import com.example.todo.common.dto.StoredFile;
+import com.example.todo.common.storage.LocalSpriteStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileStorageServiceTest {
+
+	@TempDir
+	Path uploadDir;
+
+	@TempDir
+	Path stagingDir;
+
+	private final Map<String, Long> references = new HashMap<>();
+
+	private LocalSpriteStorage storage;
+
+	private FileStorageService fileStorageService;
+
+	@BeforeEach
+	void setUp() {
+		FileReferenceCounter counter = fileName -> references.getOrDefault(fileName, 0L);
+		storage = new LocalSpriteStorage(uploadDir.toString(), stagingDir.toString());
+		fileStorageService = new FileStorageService(storage, stagingDir.toString(), 100, Duration.ofMinutes(1),
+				true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), false, List.of(counter));
+	}
+
+	@Test
+	void identicalUploadsShareOneFile() throws Exception {
+		String first = fileStorageService.storeFile(sprite("knight.svg", "<svg/>"));
+		String second = fileStorageService.storeFile(sprite("Paladin.SVG", "<svg/>"));
+		String other = fileStorageService.storeFile(sprite("mage.svg", "<svg><circle/></svg>"));
+
+		assertEquals(first, second);
+		assertNotEquals(first, other);
+		assertTrue(first.matches("[0-9a-f]{64}\\.svg"), first);
+		try (Stream<Path> files = Files.walk(uploadDir)) {
+			assertEquals(2, files.filter(Files::isRegularFile).count());
+		}
+		assertTrue(Files.exists(sharded(first)));
+	}
+
+	@Test
+	void deleteKeepsFileWhileReferenced() {
+		String fileName = fileStorageService.storeFile(sprite("knight.svg", "<svg/>"));
+		references.put(fileName, 1L);
+
+		assertFalse(fileStorageService.deleteFile(fileName));
+		assertTrue(Files.exists(sharded(fileName)));
+
+		references.remove(fileName);
+
+		assertTrue(fileStorageService.deleteFile(fileName));
+		assertFalse(Files.exists(sharded(fileName)));
+	}
+
+	@Test
+	void repeatedReadsComeFromContentCacheUntilDeleted() throws Exception {
+		String fileName = fileStorageService.storeFile(sprite("knight.svg", "<svg/>"));
+
+		assertArrayEquals("<svg/>".getBytes(StandardCharsets.UTF_8), fileStorageService.loadFileBytes(fileName));
+		try (InputStream in = fileStorageService.loadFileAsResource(fileName).getInputStream()) {
+			assertArrayEquals("<svg/>".getBytes(StandardCharsets.UTF_8), in.readAllBytes());
+		}
+		ByteCacheStats stats = fileStorageService.getContentCacheStats();
+		assertEquals(1, stats.hits());
+		assertEquals(1, stats.entries());
+		assertEquals(6, stats.bytesResident());
+
+		assertTrue(fileStorageService.deleteFile(fileName));
+		assertEquals(0, fileStorageService.getContentCacheStats().entries());
+		assertThrows(RuntimeException.class, () -> fileStorageService.loadFileBytes(fileName));
+	}
+
+	@Test
+	void stagedUploadIsInvisibleUntilCommitted() {
+		StagedFile staged = fileStorageService.stageFile(sprite("knight.svg", "<svg/>"));
+
+		assertFalse(Files.exists(sharded(staged.getFileName())));
+		assertTrue(Files.exists(staged.getStagedPath()));
+
+		fileStorageService.commitStagedFile(staged);
+
+		assertTrue(Files.exists(sharded(staged.getFileName())));
+		assertFalse(Files.exists(staged.getStagedPath()));
+	}
+
+	@Test
+	void rejectsContentThatContradictsExtension() throws Exception {
+		MockMultipartFile notAPng = new MockMultipartFile("file", "orc.png", "image/png", "<svg/>".getBytes(StandardCharsets.UTF_8));
+
+		assertThrows(IllegalArgumentException.class, () -> fileStorageService.stageFile(notAPng));
+		try (Stream<Path> staged = Files.list(stagingDir)) {
+			assertEquals(0, staged.count());
+		}
+	}
+
+	@Test
+	void sweeperDeletesOnlyOldUnreferencedFiles() throws Exception {
+		String kept = fileStorageService.storeFile(sprite("knight.svg", "<svg/>"));
+		String orphan = fileStorageService.storeFile(sprite("mage.svg", "<svg><circle/></svg>"));
+		String recent = fileStorageService.storeFile(sprite("orc.svg", "<svg><rect/></svg>"));
+		references.put(kept, 1L);
+		FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+		Files.setLastModifiedTime(sharded(kept), old);
+		Files.setLastModifiedTime(sharded(orphan), old);
+
+		new OrphanFileSweeper(fileStorageService, 1, Duration.ofDays(1), Duration.ZERO).sweep();
+
+		assertTrue(Files.exists(sharded(kept)));
+		assertFalse(Files.exists(sharded(orphan)));
+		assertTrue(Files.exists(sharded(recent)));
+	}
+
+	@Test
+	void servesLegacyFlatFilesUntilMigrated() throws Exception {
+		Files.writeString(uploadDir.resolve("3f2b9c1e-legacy.svg"), "<svg/>");
+		Files.writeString(uploadDir.resolve("3f2b9c1e-legacy.svg.gz"), "gz");
+		Files.writeString(uploadDir.resolve("Knight.png"), "png");
+
+		assertEquals(uploadDir.resolve("3f2b9c1e-legacy.svg"), storage.findStoredPath("3f2b9c1e-legacy.svg"));
+
+		assertEquals(2, fileStorageService.migrateFlatFiles(10));
+		assertEquals(0, fileStorageService.migrateFlatFiles(10));
+
+		assertEquals(sharded("3f2b9c1e-legacy.svg"), storage.findStoredPath("3f2b9c1e-legacy.svg"));
+		assertTrue(Files.exists(sharded("3f2b9c1e-legacy.svg.gz")));
+		assertNotNull(fileStorageService.describeFile("3f2b9c1e-legacy.svg").getGzipVariant());
+		assertEquals("png", new String(fileStorageService.loadFileBytes("Knight.png"), StandardCharsets.UTF_8));
+		assertFalse(Files.exists(uploadDir.resolve("Knight.png")));
+		assertNull(storage.findStoredPath("../Knight.png"));
+	}
+
+	private Path sharded(String fileName) {
+		return uploadDir.resolve(fileName.substring(0, 2)).resolve(fileName.substring(2, 4)).resolve(fileName);
+	}
+
+	private static MockMultipartFile sprite(String name, String content) {
+		return new MockMultipartFile("file", name, "image/svg+xml", content.getBytes(StandardCharsets.UTF_8));
+	}
+	@Test
+	void minificationOnlyAppliesToTheGzipVariant() throws Exception {
+		String svg = "<svg>\n  <!-- layer 1 -->\n" + "  <rect width=\"8\" height=\"8\"/>\n".repeat(40) + "</svg>\n";
+		byte[] original = svg.getBytes(StandardCharsets.UTF_8);
+
+		String fileName = fileStorageService.storeFile(sprite("knight.svg", svg));
+
+		assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(original)) + ".svg", fileName);
+		assertArrayEquals(original, Files.readAllBytes(sharded(fileName)));
+		StoredFile variant = fileStorageService.describeFile(fileName).getGzipVariant();
+		assertNotNull(variant);
+		try (InputStream in = new GZIPInputStream(Files.newInputStream(variant.getPath()))) {
+			assertArrayEquals(FileStorageService.minifySvg(original), in.readAllBytes());
+		}
+	}
+
+	@Test
+	void minifiesSvgWithoutTouchingText() {
+		String indented = "<svg>\n  <!-- layer 1 -->\n  <rect/>\n  <circle/>\n</svg>\n";
+		String withText = "<svg>\n  <text>\n    <tspan>A</tspan>\n    <tspan>B</tspan>\n  </text>\n</svg>";
+
+		assertEquals("<svg><rect/><circle/></svg>", new String(FileStorageService.minifySvg(indented.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+		assertEquals(withText, new String(FileStorageService.minifySvg(withText.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,153 @@
+package com.example.todo.common.storage;
+
+import com.example.todo.common.dto.StoredFile;
+import com.example.todo.common.service.FileStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PackSpriteStorageTest {
+
+	@TempDir
+	Path packDir;
+
+	@TempDir
+	Path stagingDir;
+
+	private PackSpriteStorage storage;
+
+	@BeforeEach
+	void setUp() {
+		storage = open();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		storage.close();
+	}
+
+	@Test
+	void reopeningRebuildsIndexFromPacks() throws Exception {
+		storage.store("a.svg", staged("<svg>a</svg>"), staged("gz-a"));
+		storage.store("b.svg", staged("<svg>b</svg>"), null);
+		assertTrue(storage.delete("b.svg"));
+
+		reopen();
+
+		StoredFile a = storage.describe("a.svg", "image/svg+xml");
+		assertNotNull(a);
+		assertEquals("<svg>a</svg>", read(a));
+		assertEquals("a.svg.gz", a.getGzipVariant().getFileName());
+		assertEquals("gz-a", read(a.getGzipVariant()));
+		assertNull(storage.describe("a.svg.gz", "image/svg+xml"));
+		assertNull(storage.describe("b.svg", "image/svg+xml"));
+		assertFalse(storage.exists("b.svg"));
+		assertEquals(List.of("a.svg"), fileNames());
+	}
+
+	@Test
+	void compactionMovesLiveRecordsAndDropsDeletedOnes() throws Exception {
+		storage.store("a.svg", staged("<svg>a</svg>"), null);
+		storage.store("b.svg", staged("<svg>" + "b".repeat(4000) + "</svg>"), null);
+		storage.delete("b.svg");
+		StoredFile before = storage.describe("a.svg", "image/svg+xml");
+
+		List<String> relocated = new ArrayList<>();
+		assertTrue(storage.compact(relocated::add) > 4000);
+
+		assertEquals(List.of("a.svg"), relocated);
+		StoredFile after = storage.describe("a.svg", "image/svg+xml");
+		assertFalse(before.getPath().equals(after.getPath()));
+		assertEquals("<svg>a</svg>", read(after));
+		// The retired pack stays readable until the next run removes it
+		assertEquals("<svg>a</svg>", read(before));
+
+		storage.compact(relocated::add);
+		assertFalse(Files.exists(before.getPath()));
+		assertEquals("<svg>a</svg>", read(before));
+
+		reopen();
+		assertEquals("<svg>a</svg>", read(storage.describe("a.svg", "image/svg+xml")));
+		assertFalse(storage.exists("b.svg"));
+	}
+
+	@Test
+	void tornRecordAtEndOfLastPackIsCutOff() throws Exception {
+		storage.store("a.svg", staged("<svg>a</svg>"), null);
+		Path pack = storage.describe("a.svg", "image/svg+xml").getPath();
+		storage.close();
+		Files.write(pack, new byte[]{0x53, 0x50, 0x50, 0x31, 1, 0, 9}, StandardOpenOption.APPEND);
+
+		storage = open();
+		storage.store("c.svg", staged("<svg>c</svg>"), null);
+		reopen();
+
+		assertEquals("<svg>a</svg>", read(storage.describe("a.svg", "image/svg+xml")));
+		assertEquals("<svg>c</svg>", read(storage.describe("c.svg", "image/svg+xml")));
+	}
+
+	@Test
+	void fileStorageServiceServesPackedFilesFromTheMapping() throws Exception {
+		FileStorageService fileStorageService = new FileStorageService(storage, stagingDir.toString(), 100, Duration.ofMinutes(1),
+				true, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64), false, List.of());
+		byte[] sprite = "<svg>\n  <rect/>\n</svg>".getBytes(StandardCharsets.UTF_8);
+
+		String fileName = fileStorageService.storeFile(new MockMultipartFile("file", "knight.svg", "image/svg+xml", sprite));
+
+		assertArrayEquals(sprite, fileStorageService.loadFileBytes(fileName));
+		assertTrue(fileStorageService.getCachedContent(fileStorageService.describeFile(fileName)).isDirect());
+		assertEquals(0, fileStorageService.getContentCacheStats().entries());
+		try (Stream<Path> staged = Files.list(stagingDir)) {
+			assertEquals(0, staged.count());
+		}
+
+		assertTrue(fileStorageService.deleteFile(fileName));
+		assertFalse(storage.exists(fileName));
+	}
+
+	private PackSpriteStorage open() {
+		return new PackSpriteStorage(packDir.toString(), DataSize.ofMegabytes(1), 0.5, DataSize.ofBytes(0));
+	}
+
+	private void reopen() throws IOException {
+		storage.close();
+		storage = open();
+	}
+
+	private Path staged(String content) throws IOException {
+		return Files.writeString(Files.createTempFile(stagingDir, ".upload-", ".tmp"), content);
+	}
+
+	private String read(StoredFile file) throws IOException {
+		ByteBuffer content = storage.read(file);
+		return StandardCharsets.UTF_8.decode(content).toString();
+	}
+
+	private List<String> fileNames() {
+		List<String> fileNames = new ArrayList<>();
+		storage.forEachFileName(Instant.now().plusSeconds(1), fileNames::add);
+		return fileNames;
+	}
+}
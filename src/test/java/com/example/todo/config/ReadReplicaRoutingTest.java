@@ -0,0 +1,131 @@
+package com.example.todo.config;
+
+import com.example.todo.common.security.PasswordHasher;
+import com.example.todo.functions.userMaster.entity.User;
+import com.example.todo.functions.userMaster.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two in-memory H2 databases stand in for a MySQL primary and its replica. They are not
+// replicated, so each holds a differently named user and a read shows which one served it.
+@DataJpaTest
+@Import({ReadReplicaConfig.class, UserService.class, PasswordHasher.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"datasource.replica.url=jdbc:h2:mem:routing_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"datasource.replica.lag-query=SELECT lag_seconds FROM replica_lag",
+		"datasource.replica.max-lag=PT5S",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=none",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"auth.password.bcrypt-strength=4"
+})
+class ReadReplicaRoutingTest {
+
+	private static final String USERS_DDL = "CREATE TABLE IF NOT EXISTS users (id BINARY(16) PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+			+ "email VARCHAR(255) NOT NULL UNIQUE, password VARCHAR(255) NOT NULL, is_deleted BOOLEAN NOT NULL, "
+			+ "created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL)";
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private ReplicaLagMonitor replicaLagMonitor;
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	private DataSource primaryDataSource;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	private DataSource replicaDataSource;
+
+	private JdbcTemplate primary;
+	private JdbcTemplate replica;
+
+	@BeforeEach
+	void setUp() {
+		primary = new JdbcTemplate(primaryDataSource);
+		replica = new JdbcTemplate(replicaDataSource);
+		for (JdbcTemplate database : List.of(primary, replica)) {
+			database.execute(USERS_DDL);
+			database.update("DELETE FROM users");
+		}
+		primary.update(insertUser("on-primary"));
+		replica.update(insertUser("on-replica"));
+		replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (lag_seconds INT)");
+		replica.update("DELETE FROM replica_lag");
+	}
+
+	@Test
+	void readOnlyTransactionsUseTheReplicaWhileItKeepsUp() {
+		setLag(1);
+
+		assertEquals(List.of("on-replica"), names(userService.getAllUsers()));
+
+		User user = new User();
+		user.setName("new");
+		user.setEmail("new@example.com");
+		user.setPassword("secret");
+		userService.createUser(user);
+		assertEquals(1, primary.queryForObject("SELECT COUNT(*) FROM users WHERE name = 'new'", Integer.class));
+		assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM users WHERE name = 'new'", Integer.class));
+	}
+
+	@Test
+	void laggingOrUnreachableReplicasAreSkipped() {
+		setLag(60);
+		assertFalse(replicaLagMonitor.isReplicaUsable());
+		assertEquals(List.of("on-primary"), names(userService.getAllUsers()));
+
+		setLag(0);
+		assertTrue(replicaLagMonitor.isReplicaUsable());
+
+		// Replication stopped: no lag reported
+		replica.update("UPDATE replica_lag SET lag_seconds = NULL");
+		replicaLagMonitor.check();
+		assertEquals(List.of("on-primary"), names(userService.getAllUsers()));
+
+		replica.execute("DROP TABLE replica_lag");
+		replicaLagMonitor.check();
+		assertFalse(replicaLagMonitor.isReplicaUsable());
+		assertEquals(List.of("on-primary"), names(userService.getAllUsers()));
+	}
+
+	private void setLag(int seconds) {
+		replica.update("DELETE FROM replica_lag");
+		replica.update("INSERT INTO replica_lag VALUES (?)", seconds);
+		replicaLagMonitor.check();
+	}
+
+	private static String insertUser(String name) {
+		return "INSERT INTO users (id, name, email, password, is_deleted, created_at, updated_at) VALUES (RANDOM_UUID(), '" + name + "', '" + name + "@example.com', 'secret', false, "
+				+ "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+	}
+
+	private static List<String> names(List<User> users) {
+		return users.stream().map(User::getName).sorted().collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,93 @@
+package com.example.todo.functions.authMaster.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The security chain with auth.token.enabled=true, end to end against H2
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:auth;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"file.upload.directory=target/auth-test/uploads",
+		"file.upload.staging-directory=target/auth-test/staging",
+		"auth.token.enabled=true",
+		"auth.token.secret=c2VjcmV0LXNlY3JldC1zZWNyZXQtc2VjcmV0LXNlY3JldA==",
+		"auth.password.bcrypt-strength=4"
+})
+class AuthControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void signUpLoginUseAndLogout() throws Exception {
+		mockMvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\":\"Ann\",\"email\":\"ann@example.com\",\"password\":\"secret\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.password").doesNotExist());
+		assertTrue(jdbcTemplate.queryForObject("SELECT password FROM users WHERE email = 'ann@example.com'", String.class)
+				.startsWith("{bcrypt}"));
+
+		mockMvc.perform(get("/api/users/paginated")).andExpect(status().isUnauthorized());
+		mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"ann@example.com\",\"password\":\"wrong\"}"))
+				.andExpect(status().isUnauthorized());
+
+		String body = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"ann@example.com\",\"password\":\"secret\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode token = objectMapper.readTree(body);
+		String authorization = "Bearer " + token.get("token").asText();
+
+		mockMvc.perform(get("/api/auth/me").header("Authorization", authorization))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.email").value("ann@example.com"));
+		mockMvc.perform(get("/api/users/paginated").header("Authorization", authorization))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(post("/api/auth/logout").header("Authorization", authorization))
+				.andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/auth/me").header("Authorization", authorization))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void legacyPlainTextPasswordsAreUpgradedOnLogin() throws Exception {
+		jdbcTemplate.update("INSERT INTO users (id, name, email, password, is_deleted, created_at, updated_at) "
+				+ "VALUES (RANDOM_UUID(), 'Old', 'old@example.com', 'plain', false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+
+		mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"old@example.com\",\"password\":\"plain\"}"))
+				.andExpect(status().isOk());
+
+		assertTrue(jdbcTemplate.queryForObject("SELECT password FROM users WHERE email = 'old@example.com'", String.class)
+				.startsWith("{bcrypt}"));
+	}
+}
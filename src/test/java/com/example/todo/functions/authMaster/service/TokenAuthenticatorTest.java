@@ -0,0 +1,132 @@
+package com.example.todo.functions.authMaster.service;
+
+import com.example.todo.functions.authMaster.entity.RevokedToken;
+import com.example.todo.functions.authMaster.repository.RevokedTokenRepository;
+import com.example.todo.functions.authMaster.security.AuthenticatedUser;
+import com.example.todo.functions.authMaster.security.TokenAuthenticationFilter;
+import com.example.todo.functions.authMaster.security.TokenClaims;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenAuthenticatorTest {
+
+	private static final String SECRET = secret('a');
+	private static final String OLD_SECRET = secret('b');
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+
+	private TokenService tokenService;
+	private TokenRevocationList revocationList;
+	private TokenAuthenticator authenticator;
+
+	@BeforeEach
+	void setUp() {
+		tokenService = new TokenService(SECRET, List.of(OLD_SECRET), Duration.ofHours(1), objectMapper);
+		revocationList = new TokenRevocationList(revokedTokenRepository);
+		authenticator = new TokenAuthenticator(tokenService, revocationList, 100, Duration.ofMinutes(5));
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void verifiedTokensResolveToACachedPrincipal() {
+		String token = tokenService.encode(tokenService.issue("user-1", "ann@example.com"));
+
+		AuthenticatedUser user = authenticator.authenticate(token);
+
+		assertEquals("user-1", user.id());
+		assertEquals("ann@example.com", user.email());
+		assertSame(user, authenticator.authenticate(token));
+		assertEquals(1, authenticator.principalCacheStats().hits());
+	}
+
+	@Test
+	void tamperedForeignAndExpiredTokensAreRefused() {
+		String token = tokenService.encode(tokenService.issue("user-1", "ann@example.com"));
+		String[] parts = token.split("\\.");
+		String otherPayload = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("{\"jti\":\"x\",\"sub\":\"admin\",\"iat\":0,\"exp\":9999999999}".getBytes());
+		TokenService foreign = new TokenService(secret('c'), List.of(), Duration.ofHours(1), objectMapper);
+		TokenService expired = new TokenService(SECRET, List.of(), Duration.ZERO, objectMapper);
+
+		assertThrows(IllegalArgumentException.class, () -> authenticator.authenticate(parts[0] + "." + otherPayload + "." + parts[2]));
+		assertThrows(IllegalArgumentException.class, () -> authenticator.authenticate(foreign.encode(foreign.issue("user-1", null))));
+		assertThrows(IllegalArgumentException.class, () -> authenticator.authenticate(expired.encode(expired.issue("user-1", null))));
+		assertThrows(IllegalArgumentException.class, () -> authenticator.authenticate("not.a-token"));
+	}
+
+	@Test
+	void tokensSignedWithThePreviousSecretStillVerify() {
+		TokenService previous = new TokenService(OLD_SECRET, List.of(), Duration.ofHours(1), objectMapper);
+
+		assertEquals("user-2", authenticator.authenticate(previous.encode(previous.issue("user-2", null))).id());
+	}
+
+	@Test
+	void revokedTokensAreRefusedHereAndAfterARefresh() {
+		TokenClaims claims = tokenService.issue("user-1", "ann@example.com");
+		String token = tokenService.encode(claims);
+		AuthenticatedUser user = authenticator.authenticate(token);
+
+		authenticator.revoke(user);
+
+		verify(revokedTokenRepository).save(any(RevokedToken.class));
+		assertThrows(IllegalArgumentException.class, () -> authenticator.authenticate(token));
+
+		// Another instance learns about it from the table
+		TokenRevocationList other = new TokenRevocationList(revokedTokenRepository);
+		when(revokedTokenRepository.findTokenIdsExpiringAfter(any())).thenReturn(List.of(claims.jti()));
+		other.refresh();
+		TokenAuthenticator otherAuthenticator = new TokenAuthenticator(tokenService, other, 100, Duration.ofMinutes(5));
+		assertThrows(IllegalArgumentException.class, () -> otherAuthenticator.authenticate(token));
+	}
+
+	@Test
+	void filterAuthenticatesBearerTokensAndAnswers401ToBadOnes() throws Exception {
+		TokenAuthenticationFilter filter = new TokenAuthenticationFilter(authenticator);
+		String token = tokenService.encode(tokenService.issue("user-1", "ann@example.com"));
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/me");
+		request.addHeader("Authorization", "Bearer " + token);
+		MockFilterChain chain = new MockFilterChain();
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		assertEquals("user-1", ((AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).id());
+		SecurityContextHolder.clearContext();
+
+		MockHttpServletRequest forged = new MockHttpServletRequest("GET", "/api/auth/me");
+		forged.addHeader("Authorization", "Bearer " + token + "x");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain unreached = new MockFilterChain();
+		filter.doFilter(forged, response, unreached);
+		assertEquals(401, response.getStatus());
+		assertNull(unreached.getRequest());
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	private static String secret(char fill) {
+		return Base64.getEncoder().encodeToString(String.valueOf(fill).repeat(32).getBytes());
+	}
+}
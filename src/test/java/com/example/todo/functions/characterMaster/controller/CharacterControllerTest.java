@@ -0,0 +1,132 @@
+package com.example.todo.functions.characterMaster.controller;
+
+import com.example.todo.common.service.FileStorageService;
+import com.example.todo.common.service.SpriteSheetService;
+import com.example.todo.functions.characterMaster.dto.CreateCharacter;
+import com.example.todo.functions.characterMaster.dto.ReadCharacter;
+import com.example.todo.functions.characterMaster.dto.UpdateCharacter;
+import com.example.todo.functions.characterMaster.enums.CharacterClassification;
+import com.example.todo.functions.characterMaster.enums.CharacterType;
+import com.example.todo.functions.characterMaster.index.CharacterNameIndex;
+import com.example.todo.functions.characterMaster.index.CharacterStatIndex;
+import com.example.todo.functions.characterMaster.repository.CharacterRepository;
+import com.example.todo.functions.characterMaster.service.impl.CharacterServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Writes commit on their own, so the test runs outside the usual rolled-back test transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:character_etags;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class CharacterControllerTest {
+
+	@Autowired
+	private CharacterRepository characterRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private CharacterServiceImpl characterService;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM character_classes");
+		characterService = new CharacterServiceImpl(characterRepository, mock(FileStorageService.class), entityManager,
+				new CharacterStatIndex(false), new CharacterNameIndex(false, 0.3), 1000, 500, transactionManager,
+				Duration.ofMinutes(1), true, 10, Duration.ofMinutes(1));
+		mockMvc = MockMvcBuilders.standaloneSetup(new CharacterController(characterService,
+				mock(SpriteSheetService.class), new ObjectMapper())).build();
+	}
+
+	@Test
+	void characterMatchingItsStrongEtagIsNotModified() throws Exception {
+		Long id = create("Ann").getId();
+
+		String etag = mockMvc.perform(get("/api/v1/characters/{id}", id))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertTrue(etag.startsWith("\"" + id + "-"), etag);
+
+		mockMvc.perform(get("/api/v1/characters/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+		mockMvc.perform(get("/api/v1/characters/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "\"" + id + "-0.0\""))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void catalogEtagChangesAfterAWrite() throws Exception {
+		Long id = create("Ann").getId();
+		create("Bob");
+
+		String etag = mockMvc.perform(get("/api/v1/characters"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertTrue(etag.startsWith("W/\""), etag);
+		mockMvc.perform(get("/api/v1/characters").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		// Another query over the same catalog is a different list
+		mockMvc.perform(get("/api/v1/characters/paginated").param("page", "1").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk());
+
+		// Let the clock move on so the update gets a later updated_at
+		Thread.sleep(10);
+		UpdateCharacter update = new UpdateCharacter();
+		update.setName("Anna");
+		update.setType(CharacterType.NPC);
+		update.setClassification(CharacterClassification.Human);
+		characterService.updateCharacter(id, update);
+
+		String updatedEtag = mockMvc.perform(get("/api/v1/characters").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, updatedEtag);
+	}
+
+	private ReadCharacter create(String name) {
+		CreateCharacter createRequest = new CreateCharacter();
+		createRequest.setName(name);
+		createRequest.setClassification(CharacterClassification.Human);
+		return characterService.createCharacter(createRequest);
+	}
+}
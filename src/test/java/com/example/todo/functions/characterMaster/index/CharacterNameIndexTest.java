@@ -0,0 +1,55 @@
+package com.example.todo.functions.characterMaster.index;
+
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.NameSearchMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CharacterNameIndexTest {
+
+	private CharacterNameIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new CharacterNameIndex(true, 0.3);
+		index.upsert(character(1L, "Aragorn"));
+		index.upsert(character(2L, "Gorbag"));
+		index.upsert(character(3L, "Legolas"));
+	}
+
+	@Test
+	void findsSubstringsCaseInsensitively() {
+		assertEquals(Set.of(1L, 2L), index.find("GOR", NameSearchMode.CONTAINS));
+		assertEquals(Set.of(3L), index.find("la", NameSearchMode.CONTAINS));
+	}
+
+	@Test
+	void prefixModeOnlyMatchesTheStartOfTheName() {
+		assertEquals(Set.of(2L), index.find("gor", NameSearchMode.PREFIX));
+	}
+
+	@Test
+	void fuzzyModeToleratesTypos() {
+		assertEquals(Set.of(3L), index.find("legolaz", NameSearchMode.FUZZY));
+	}
+
+	@Test
+	void followsRenamesAndRemovals() {
+		index.upsert(character(1L, "Strider"));
+		index.remove(2L);
+
+		assertEquals(Set.of(), index.find("gor", NameSearchMode.CONTAINS));
+		assertEquals(Set.of(1L), index.find("stri", NameSearchMode.PREFIX));
+	}
+
+	private static GameCharacter character(Long id, String name) {
+		GameCharacter character = new GameCharacter();
+		character.setId(id);
+		character.setName(name);
+		return character;
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.todo.functions.characterMaster.index;
+
+import com.example.todo.functions.characterMaster.dto.FilterCharacter;
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.CharacterClassification;
+import com.example.todo.functions.characterMaster.enums.CharacterType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CharacterStatIndexTest {
+
+	private CharacterStatIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new CharacterStatIndex(true);
+		index.upsert(character(1L, CharacterType.HERO, CharacterClassification.Elf, 120, 30));
+		index.upsert(character(2L, CharacterType.VILLAIN, CharacterClassification.Orc, 200, 30));
+		index.upsert(character(3L, CharacterType.HERO, CharacterClassification.Human, 90, 15));
+		index.upsert(character(4L, CharacterType.HERO, CharacterClassification.Elf, 150, null));
+	}
+
+	@Test
+	void intersectsEnumAndRangeFilters() {
+		FilterCharacter filter = new FilterCharacter();
+		filter.setType(CharacterType.HERO);
+		filter.setMinBaseHealth(100);
+
+		CharacterStatIndex.Result result = index.search(filter, null, 0, 10, "id", false);
+
+		assertEquals(List.of(1L, 4L), result.ids());
+		assertEquals(2, result.total());
+	}
+
+	@Test
+	void nullStatsNeverMatchARange() {
+		FilterCharacter filter = new FilterCharacter();
+		filter.setMaxBaseAttack(100);
+
+		assertEquals(List.of(1L, 2L, 3L), index.search(filter, null, 0, 10, "id", false).ids());
+	}
+
+	@Test
+	void sortsByStatThenIdAndPages() {
+		FilterCharacter filter = new FilterCharacter();
+
+		assertEquals(List.of(4L, 3L, 1L, 2L), index.search(filter, null, 0, 10, "baseAttack", false).ids());
+		assertEquals(List.of(2L, 1L), index.search(filter, null, 0, 2, "baseAttack", true).ids());
+		assertEquals(List.of(3L, 4L), index.search(filter, null, 1, 2, "baseAttack", true).ids());
+	}
+
+	@Test
+	void reflectsUpdatesAndRemovals() {
+		index.upsert(character(3L, CharacterType.VILLAIN, CharacterClassification.Human, 90, 15));
+		index.remove(2L);
+
+		FilterCharacter filter = new FilterCharacter();
+		filter.setType(CharacterType.VILLAIN);
+
+		assertEquals(List.of(3L), index.search(filter, null, 0, 10, "id", false).ids());
+	}
+
+	private static GameCharacter character(Long id, CharacterType type, CharacterClassification classification,
+										   Integer baseHealth, Integer baseAttack) {
+		GameCharacter character = new GameCharacter();
+		character.setId(id);
+		character.setName("Character " + id);
+		character.setType(type);
+		character.setClassification(classification);
+		character.setBaseHealth(baseHealth);
+		character.setBaseAttack(baseAttack);
+		return character;
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.todo.functions.characterMaster.mapper;
+
+import com.example.todo.functions.characterMaster.dto.CreateCharacter;
+import com.example.todo.functions.characterMaster.dto.ReadCharacter;
+import com.example.todo.functions.characterMaster.dto.UpdateCharacter;
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.CharacterClassification;
+import com.example.todo.functions.characterMaster.enums.CharacterType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The mapper must behave exactly like the BeanUtils.copyProperties calls it replaced
+class CharacterMapperTest {
+
+	@Test
+	void readCharacterMatchesReflectiveCopy() {
+		GameCharacter character = sampleCharacter();
+
+		ReadCharacter expected = new ReadCharacter();
+		BeanUtils.copyProperties(character, expected);
+
+		assertEquals(expected, CharacterMapper.toReadCharacter(character));
+	}
+
+	@Test
+	void entityFromCreateRequestMatchesReflectiveCopy() {
+		CreateCharacter createRequest = new CreateCharacter();
+		createRequest.setType(CharacterType.HERO);
+		createRequest.setClassification(CharacterClassification.Dwarf);
+		createRequest.setName("Gimli");
+		createRequest.setDescription("Son of Gloin");
+		createRequest.setSpritePath("/uploads/gimli.svg");
+		createRequest.setBaseAttack(null);
+
+		GameCharacter expected = new GameCharacter();
+		BeanUtils.copyProperties(createRequest, expected);
+
+		assertEquals(expected, CharacterMapper.toEntity(createRequest));
+	}
+
+	@Test
+	void updateMatchesReflectiveCopyIgnoringIdAndIsDeleted() {
+		UpdateCharacter updateRequest = new UpdateCharacter();
+		updateRequest.setId(99L);
+		updateRequest.setType(CharacterType.VILLAIN);
+		updateRequest.setClassification(CharacterClassification.Orc);
+		updateRequest.setName("Azog");
+		updateRequest.setBaseHealth(300);
+		updateRequest.setUpdatedAt(new Timestamp(2_000L));
+
+		GameCharacter expected = sampleCharacter();
+		BeanUtils.copyProperties(updateRequest, expected, "id", "isDeleted");
+		GameCharacter actual = sampleCharacter();
+		CharacterMapper.applyUpdate(updateRequest, actual);
+
+		assertEquals(expected, actual);
+	}
+
+	private static GameCharacter sampleCharacter() {
+		GameCharacter character = new GameCharacter();
+		character.setId(7L);
+		character.setType(CharacterType.HERO);
+		character.setClassification(CharacterClassification.Elf);
+		character.setName("Legolas");
+		character.setDescription("Prince of Mirkwood");
+		character.setSpritePath("/uploads/legolas.svg");
+		character.setBaseHealth(120);
+		character.setBaseAttack(40);
+		character.setBaseMagic(15);
+		character.setBasePhysicalDefense(8);
+		character.setBaseMagicalDefense(12);
+		character.setBaseSpeed(30);
+		character.setIsDeleted(false);
+		character.setCreatedAt(new Timestamp(1_000L));
+		character.setUpdatedAt(new Timestamp(1_500L));
+		return character;
+	}
+}
@@ -0,0 +1,280 @@
+package com.example.todo.functions.characterMaster.repository;
+
+import com.example.todo.functions.characterMaster.dto.FilterCharacter;
+import com.example.todo.functions.characterMaster.dto.ReadCharacterSummary;
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.CharacterClassification;
+import com.example.todo.functions.characterMaster.enums.CharacterType;
+import com.example.todo.functions.characterMaster.enums.NameSearchMode;
+import com.example.todo.functions.characterMaster.specification.CharacterCursor;
+import com.example.todo.functions.characterMaster.specification.CharacterSpecification;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the CharacterSpecification query shapes through Hibernate against H2 in MySQL mode and
+// asserts on the EXPLAIN output of the SQL actually generated, so a dropped index or a spec
+// change that stops using one fails here instead of as a full scan in production.
+// Criteria literals are inlined so the captured SQL can be explained as-is, and IGNORECASE mirrors
+// MySQL's case-insensitive default collation.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:character_plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.todo.functions.characterMaster.repository.CharacterQueryPlanTest$SqlCapture"
+})
+class CharacterQueryPlanTest {
+
+	private static final int ROWS = 5000;
+
+	@Autowired
+	private CharacterRepository characterRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void seed() {
+		jdbcTemplate.update("DELETE FROM character_classes");
+		Random random = new Random(42);
+		List<Object[]> rows = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			rows.add(new Object[]{
+					"character-" + i,
+					CharacterType.values()[random.nextInt(CharacterType.values().length)].name(),
+					CharacterClassification.values()[random.nextInt(CharacterClassification.values().length)].name(),
+					random.nextInt(1000), random.nextInt(1000), random.nextInt(1000),
+					random.nextInt(1000), random.nextInt(1000), random.nextInt(1000),
+					random.nextInt(10) == 0
+			});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO character_classes (name, type, classification, base_health, base_attack, base_magic, " +
+				"base_physical_defense, base_magical_defense, base_speed, is_deleted, created_at, updated_at) " +
+				"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", rows);
+		jdbcTemplate.execute("ANALYZE");
+		SqlCapture.clear();
+	}
+
+	@Test
+	void typeAndClassificationFilterUsesTypeIndex() {
+		FilterCharacter filter = new FilterCharacter();
+		filter.setType(CharacterType.HERO);
+		filter.setClassification(CharacterClassification.Elf);
+
+		String plan = explainSummaries(CharacterSpecification.getFilteredCharacters(filter, null), Sort.by("id"), 12);
+
+		assertUsesIndex(plan, "idx_character_deleted_type");
+	}
+
+	@Test
+	void classificationFilterUsesClassificationIndex() {
+		FilterCharacter filter = new FilterCharacter();
+		filter.setClassification(CharacterClassification.Dragon);
+
+		String plan = explainSummaries(CharacterSpecification.getFilteredCharacters(filter, null), Sort.by("id"), 12);
+
+		assertUsesIndex(plan, "idx_character_deleted_classification");
+	}
+
+	@Test
+	void statRangeFilterUsesStatIndex() {
+		String[][] stats = {
+				{"baseHealth", "idx_character_deleted_health"},
+				{"baseAttack", "idx_character_deleted_attack"},
+				{"baseMagic", "idx_character_deleted_magic"},
+				{"basePhysicalDefense", "idx_character_deleted_physical_defense"},
+				{"baseMagicalDefense", "idx_character_deleted_magical_defense"},
+				{"baseSpeed", "idx_character_deleted_speed"}
+		};
+		for (String[] stat : stats) {
+			FilterCharacter filter = rangeFilter(stat[0], 950, 999);
+
+			String plan = explainSummaries(CharacterSpecification.getFilteredCharacters(filter, null), Sort.by(stat[0]), 12);
+
+			assertUsesIndex(plan, stat[1]);
+		}
+	}
+
+	@Test
+	void prefixNameSearchUsesNameIndexOrdering() {
+		FilterCharacter filter = new FilterCharacter();
+		filter.setSearchMode(NameSearchMode.PREFIX);
+
+		String plan = explainSummaries(CharacterSpecification.getFilteredCharacters(filter, "Character-12"), Sort.by("name"), 12);
+
+		assertUsesIndex(plan, "idx_character_deleted_name");
+	}
+
+	@Test
+	void prefixNameSearchIgnoresCase() {
+		FilterCharacter filter = new FilterCharacter();
+		filter.setSearchMode(NameSearchMode.PREFIX);
+
+		List<ReadCharacterSummary> matches = characterRepository.findSummaries(
+				CharacterSpecification.getFilteredCharacters(filter, "CHARACTER-123"), Sort.by("name"));
+
+		assertFalse(matches.isEmpty());
+		assertTrue(matches.stream().allMatch(character -> character.getName().startsWith("character-123")));
+	}
+
+	@Test
+	void keysetPageOnStatUsesStatIndex() {
+		List<ReadCharacterSummary> firstPage = characterRepository.findSummaries(
+				CharacterSpecification.getFilteredCharacters(new FilterCharacter(), null),
+				Sort.by(Sort.Order.asc("baseAttack"), Sort.Order.asc("id")), 12);
+		CharacterCursor cursor = CharacterCursor.after(firstPage.get(firstPage.size() - 1), "baseAttack", false);
+		Specification<GameCharacter> spec = CharacterSpecification.getFilteredCharacters(rangeFilter("baseAttack", 900, 999), null)
+				.and(CharacterSpecification.after(cursor));
+
+		String plan = explainSummaries(spec, Sort.by(Sort.Order.asc("baseAttack"), Sort.Order.asc("id")), 13);
+
+		assertUsesIndex(plan, "idx_character_deleted_attack");
+	}
+
+	@Test
+	void idInListUsesPrimaryKey() {
+		String plan = explainSummaries(CharacterSpecification.hasIdIn(List.of(1L, 2L, 3L)), Sort.by("id"), 12);
+
+		assertTrue(plan.contains("primary_key"), plan);
+	}
+
+	@Test
+	void nameMatchesBeyondTheInListCapFallBackToLikeExceptFuzzyOnes() {
+		FilterCharacter filter = new FilterCharacter();
+		filter.setSearchMode(NameSearchMode.FUZZY);
+		List<Long> few = List.of(1L, 2L, 3L);
+		List<Long> many = LongStream.rangeClosed(1, 2000).boxed().toList();
+
+		explainSummaries(CharacterSpecification.getFilteredCharacters(filter, "charactr", few, 1000), Sort.by("id"), 12);
+		String fewSql = SqlCapture.statements().get(0).toLowerCase();
+		assertTrue(fewSql.contains(" in ("), fewSql);
+		// LIKE would answer a different question than the fuzzy match
+		assertThrows(IllegalArgumentException.class, () -> CharacterSpecification.getFilteredCharacters(filter, "charactr", many, 1000));
+
+		filter.setSearchMode(NameSearchMode.CONTAINS);
+		explainSummaries(CharacterSpecification.getFilteredCharacters(filter, "charac", many, 1000), Sort.by("id"), 12);
+		String manySql = SqlCapture.statements().get(0).toLowerCase();
+		assertFalse(manySql.contains(" in ("), manySql);
+		assertTrue(manySql.contains(" like "), manySql);
+	}
+
+	@Test
+	void spriteReferenceLookupsUseTheirIndexes() {
+		SqlCapture.clear();
+		characterRepository.findReferencedSpriteFileNames(List.of("a.png", "b.png"));
+		characterRepository.findLegacyReferencedSpritePaths(List.of("/uploads/a.png", "a.png"));
+		List<String> statements = SqlCapture.statements();
+
+		assertUsesIndex(explain(statements.get(0)), "idx_character_sprite_file_name");
+		assertUsesIndex(explain(statements.get(1)), "idx_character_sprite_path");
+	}
+
+	@Test
+	void keysetPageReturnsRowsAfterCursor() {
+		Sort sort = Sort.by(Sort.Order.desc("baseSpeed"), Sort.Order.desc("id"));
+		Specification<GameCharacter> live = CharacterSpecification.getFilteredCharacters(new FilterCharacter(), null);
+		List<ReadCharacterSummary> all = characterRepository.findSummaries(live, sort);
+
+		List<ReadCharacterSummary> firstPage = characterRepository.findSummaries(live, sort, 50);
+		CharacterCursor cursor = CharacterCursor.after(firstPage.get(49), "baseSpeed", true);
+		List<ReadCharacterSummary> secondPage = characterRepository.findSummaries(live.and(CharacterSpecification.after(cursor)), sort, 50);
+
+		assertEquals(all.subList(0, 50), firstPage);
+		assertEquals(all.subList(50, 100), secondPage);
+	}
+
+	@Test
+	void summaryPageCountsOnlyLiveRows() {
+		long live = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM character_classes WHERE is_deleted = FALSE", Long.class);
+
+		long total = characterRepository.findSummaries(
+				CharacterSpecification.getFilteredCharacters(new FilterCharacter(), null), PageRequest.of(0, 12)).getTotalElements();
+
+		assertEquals(live, total);
+	}
+
+	private String explainSummaries(Specification<GameCharacter> spec, Sort sort, int limit) {
+		SqlCapture.clear();
+		characterRepository.findSummaries(spec, sort, limit);
+		List<String> statements = SqlCapture.statements();
+		assertEquals(1, statements.size(), statements.toString());
+		// Only the row limit is still bound as a JDBC parameter
+		String sql = statements.get(0).replace("?", String.valueOf(limit));
+		return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class)).toLowerCase();
+	}
+
+	// Explain a captured statement whose bound parameters are all strings
+	private String explain(String sql) {
+		return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql.replace("?", "'x'"), String.class)).toLowerCase();
+	}
+
+	private static void assertUsesIndex(String plan, String index) {
+		assertTrue(plan.contains(index), () -> "expected " + index + " in plan:\n" + plan);
+		assertFalse(plan.contains("tablescan"), () -> "unexpected table scan in plan:\n" + plan);
+	}
+
+	private static FilterCharacter rangeFilter(String stat, int min, int max) {
+		FilterCharacter filter = new FilterCharacter();
+		switch (stat) {
+			case "baseHealth" -> { filter.setMinBaseHealth(min); filter.setMaxBaseHealth(max); }
+			case "baseAttack" -> { filter.setMinBaseAttack(min); filter.setMaxBaseAttack(max); }
+			case "baseMagic" -> { filter.setMinBaseMagic(min); filter.setMaxBaseMagic(max); }
+			case "basePhysicalDefense" -> { filter.setMinBasePhysicalDefense(min); filter.setMaxBasePhysicalDefense(max); }
+			case "baseMagicalDefense" -> { filter.setMinBaseMagicalDefense(min); filter.setMaxBaseMagicalDefense(max); }
+			case "baseSpeed" -> { filter.setMinBaseSpeed(min); filter.setMaxBaseSpeed(max); }
+			default -> throw new IllegalArgumentException(stat);
+		}
+		return filter;
+	}
+
+	// Records the SQL Hibernate sends so the tests explain exactly what the repository runs
+	public static class SqlCapture implements StatementInspector {
+
+		private static final List<String> STATEMENTS = new ArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			synchronized (STATEMENTS) {
+				STATEMENTS.add(sql);
+			}
+			return sql;
+		}
+
+		static void clear() {
+			synchronized (STATEMENTS) {
+				STATEMENTS.clear();
+			}
+		}
+
+		static List<String> statements() {
+			synchronized (STATEMENTS) {
+				return new ArrayList<>(STATEMENTS);
+			}
+		}
+	}
+}
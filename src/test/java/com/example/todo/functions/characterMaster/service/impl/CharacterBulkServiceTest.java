@@ -0,0 +1,176 @@
+package com.example.todo.functions.characterMaster.service.impl;
+
+import com.example.todo.common.io.NdjsonReader;
+import com.example.todo.common.service.FileStorageService;
+import com.example.todo.functions.characterMaster.dto.BulkCharacterResult;
+import com.example.todo.functions.characterMaster.dto.CreateCharacter;
+import com.example.todo.functions.characterMaster.dto.UpdateCharacter;
+import com.example.todo.functions.characterMaster.index.CharacterNameIndex;
+import com.example.todo.functions.characterMaster.index.CharacterStatIndex;
+import com.example.todo.functions.characterMaster.repository.CharacterRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Batches commit on their own, so the test runs outside the usual rolled-back test transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:character_bulk;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class CharacterBulkServiceTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Autowired
+	private CharacterRepository characterRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void clear() {
+		jdbcTemplate.update("DELETE FROM character_classes");
+	}
+
+	@Test
+	void reportsBadItemsInPlaceAndCreatesTheRestInBatches() throws IOException {
+		CharacterRepository repository = mock(CharacterRepository.class, delegatesTo(characterRepository));
+		String ndjson = line("Ann", "Human")
+				+ "{\"name\":\"Bob\",\n"
+				+ "null\n"
+				+ "{\"name\":\"Cid\",\"type\":\"HERO\"}\n"
+				+ "\n"
+				+ line("Dee", "Elf")
+				+ line("Eve", "Orc");
+
+		List<BulkCharacterResult> results;
+		try (NdjsonReader<CreateCharacter> requests = ndjson(ndjson, CreateCharacter.class)) {
+			results = service(repository).bulkCreateCharacters(requests);
+		}
+
+		assertEquals(List.of("0 CREATED null", "1 FAILED Line 2 is not valid", "2 FAILED item is empty",
+				"3 FAILED classification is required", "4 CREATED null", "5 CREATED null"), describe(results));
+		// Ann and Dee fill the first batch of two, Eve goes in alone
+		verify(repository, times(2)).insertAll(anyList());
+		List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM character_classes ORDER BY name", Long.class);
+		assertEquals(List.of(results.get(0).getId(), results.get(4).getId(), results.get(5).getId()), ids);
+		assertEquals(3, ids.stream().distinct().count());
+		assertEquals("NPC", jdbcTemplate.queryForObject("SELECT type FROM character_classes WHERE name = 'Ann'", String.class));
+	}
+
+	@Test
+	void aFailedBatchLeavesTheBatchesBeforeItCommitted() {
+		CharacterRepository repository = mock(CharacterRepository.class, delegatesTo(characterRepository));
+		doAnswer(invocation -> {
+			characterRepository.insertAll(invocation.getArgument(0));
+			return null;
+		})
+				.doThrow(new IllegalStateException("connection reset"))
+				.when(repository).insertAll(anyList());
+		String ndjson = line("Ann", "Human") + line("Bob", "Elf") + line("Cid", "Orc");
+
+		List<BulkCharacterResult> results = service(repository).bulkCreateCharacters(ndjson(ndjson, CreateCharacter.class));
+
+		assertEquals(List.of("0 CREATED null", "1 CREATED null", "2 FAILED connection reset"), describe(results));
+		assertEquals(List.of("Ann", "Bob"),
+				jdbcTemplate.queryForList("SELECT name FROM character_classes ORDER BY name", String.class));
+	}
+
+	@Test
+	void reportsBadUpdatesInPlaceAndAppliesTheRest() throws IOException {
+		List<BulkCharacterResult> created = service(characterRepository).bulkCreateCharacters(
+				ndjson(line("Ann", "Human") + line("Bob", "Elf"), CreateCharacter.class));
+		Long ann = created.get(0).getId();
+		Long bob = created.get(1).getId();
+		String ndjson = "{\"id\":" + ann + ",\"name\":\"Anna\",\"type\":\"HERO\",\"classification\":\"Human\"}\n"
+				+ "{\"id\":" + bob + ",\"name\":\n"
+				+ "{\"name\":\"Nobody\",\"type\":\"HERO\",\"classification\":\"Human\"}\n"
+				+ "{\"id\":" + (bob + 100) + ",\"name\":\"Ghost\",\"type\":\"HERO\",\"classification\":\"Human\"}\n"
+				+ "null\n";
+
+		List<BulkCharacterResult> results;
+		try (NdjsonReader<UpdateCharacter> requests = ndjson(ndjson, UpdateCharacter.class)) {
+			results = service(characterRepository).bulkUpdateCharacters(requests);
+		}
+
+		assertEquals(List.of("0 UPDATED null", "1 FAILED Line 2 is not valid", "2 FAILED id is required",
+				"3 FAILED Character not found with id: " + (bob + 100), "4 FAILED item is empty"), describe(results));
+		assertEquals(ann, results.get(0).getId());
+		assertEquals(List.of("Anna", "Bob"),
+				jdbcTemplate.queryForList("SELECT name FROM character_classes ORDER BY name", String.class));
+	}
+
+	private CharacterServiceImpl service(CharacterRepository repository) {
+		return new CharacterServiceImpl(repository, mock(FileStorageService.class), entityManager,
+				new CharacterStatIndex(false), new CharacterNameIndex(false, 0.3), 1000, 2, transactionManager,
+				Duration.ofSeconds(1), false, 10, Duration.ofMinutes(1));
+	}
+
+	private <T> NdjsonReader<T> ndjson(String content, Class<T> type) {
+		return new NdjsonReader<>(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), objectMapper.readerFor(type));
+	}
+
+	private static String line(String name, String classification) {
+		return "{\"name\":\"" + name + "\",\"classification\":\"" + classification + "\"}\n";
+	}
+
+	// index, status and the start of the error; created and updated rows show a null error
+	private static List<String> describe(List<BulkCharacterResult> results) {
+		results.forEach(result -> {
+			if (result.getStatus() != BulkCharacterResult.Status.FAILED) {
+				assertNotNull(result.getId());
+			}
+		});
+		return results.stream()
+				.map(result -> result.getIndex() + " " + result.getStatus() + " " + shorten(result.getError()))
+				.collect(Collectors.toList());
+	}
+
+	private static String shorten(String error) {
+		if (error != null && error.startsWith("Line ")) {
+			assertTrue(error.contains(" is not valid: "));
+			return error.substring(0, error.indexOf(':'));
+		}
+		return error;
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.todo.functions.characterMaster.service.impl;
+
+import com.example.todo.functions.characterMaster.entity.GameCharacter;
+import com.example.todo.functions.characterMaster.enums.CharacterClassification;
+import com.example.todo.functions.characterMaster.enums.CharacterType;
+import com.example.todo.functions.characterMaster.repository.CharacterRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@Import(CharacterSpriteReferenceCounter.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:sprite_references;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class CharacterSpriteReferenceCounterTest {
+
+	@Autowired
+	private CharacterRepository characterRepository;
+
+	@Autowired
+	private CharacterSpriteReferenceCounter referenceCounter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void spritePathsMatchOnTheirLastSegmentWhateverTheUrlPrefix() {
+		save("/uploads/legacy.png", false);
+		save("/api/v1/files/aa11.png", false);
+		save("http://localhost:8081/api/v1/files/bb22.png", true);
+		save("bare.png", false);
+
+		assertEquals(1, referenceCounter.countReferences("legacy.png"));
+		assertEquals(1, referenceCounter.countReferences("aa11.png"));
+		assertEquals(1, referenceCounter.countReferences("bb22.png"));
+		assertEquals(1, referenceCounter.countReferences("bare.png"));
+		assertEquals(0, referenceCounter.countReferences("a11.png"));
+
+		assertEquals(Set.of("legacy.png", "aa11.png", "bb22.png", "bare.png"), referenceCounter.findReferenced(
+				List.of("legacy.png", "aa11.png", "bb22.png", "bare.png", "a11.png", "orphan.png")));
+	}
+
+	@Test
+	void rowsWithoutASpriteFileNameMatchOnTheApiUrlForms() {
+		insertLegacy("/uploads/old.png");
+		insertLegacy("/api/v1/files/older.png");
+		insertLegacy("oldest.png");
+
+		assertEquals(1, referenceCounter.countReferences("old.png"));
+		assertEquals(1, referenceCounter.countReferences("older.png"));
+		assertEquals(1, referenceCounter.countReferences("oldest.png"));
+		assertEquals(Set.of("old.png", "older.png", "oldest.png"),
+				referenceCounter.findReferenced(List.of("old.png", "older.png", "oldest.png", "orphan.png")));
+	}
+
+	@Test
+	void likeWildcardsInFileNamesDoNotMatchOtherSprites() {
+		save("/api/v1/files/sprite-1.png", false);
+
+		assertEquals(0, referenceCounter.countReferences("sprite_1.png"));
+		assertEquals(0, referenceCounter.countReferences("%.png"));
+		assertEquals(Set.of(), referenceCounter.findReferenced(List.of("sprite_1.png", "%.png")));
+	}
+
+	// A row written before sprite_file_name existed
+	private void insertLegacy(String spritePath) {
+		jdbcTemplate.update("INSERT INTO character_classes (name, type, classification, sprite_path, is_deleted, created_at, updated_at) "
+				+ "VALUES (?, ?, ?, ?, false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+				"Legacy " + spritePath, CharacterType.values()[0].name(), CharacterClassification.values()[0].name(), spritePath);
+	}
+
+	private void save(String spritePath, boolean deleted) {
+		GameCharacter character = new GameCharacter();
+		character.setName("Character " + spritePath.hashCode());
+		character.setDescription("");
+		character.setType(CharacterType.values()[0]);
+		character.setClassification(CharacterClassification.values()[0]);
+		character.setSpritePath(spritePath);
+		character.setIsDeleted(deleted);
+		characterRepository.saveAndFlush(character);
+	}
+}
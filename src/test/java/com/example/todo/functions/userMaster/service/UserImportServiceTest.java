@@ -0,0 +1,178 @@
+package com.example.todo.functions.userMaster.service;
+
+import com.example.todo.common.io.NdjsonReader;
+import com.example.todo.common.security.PasswordHasher;
+import com.example.todo.functions.userMaster.dto.ImportUser;
+import com.example.todo.functions.userMaster.dto.UserImportReport;
+import com.example.todo.functions.userMaster.importer.UserCsvReader;
+import com.example.todo.functions.userMaster.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// Batches commit on their own, so the test runs outside the usual rolled-back test transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:user_import;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class UserImportServiceTest {
+
+	private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+	private final PasswordHasher passwordHasher = new PasswordHasher(4, 2, 8, Duration.ofSeconds(5), 2, 8);
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void clear() {
+		jdbcTemplate.update("DELETE FROM users");
+	}
+
+	@AfterEach
+	void shutdown() {
+		passwordHasher.shutdown();
+	}
+
+	@Test
+	void importsCsvRowsAndReportsOnlyTheRowsThatWereNotCreated() {
+		register("taken@example.com");
+		String csv = "\uFEFFemail,Name,password,ignored\r\n"
+				+ "ann@example.com,\"Doe, Ann\",secret,x\r\n"
+				+ "\r\n"
+				+ "not-an-email,Bob,secret\n"
+				+ "ANN@example.com,Ann again,secret\n"
+				+ "taken@example.com,Tak,secret\n"
+				+ "carl@example.com,\"Carl \"\"C\"\"\"\n"
+				+ "dee@example.com,Dee,secret\n"
+				+ "ann@example.com,Ann in a later batch,secret";
+
+		UserImportReport report = new UserImportService(userRepository, validator, passwordHasher, transactionManager, 2).importUsers(csv(csv));
+
+		assertEquals(2, report.getCreated());
+		assertEquals(3, report.getDuplicates());
+		assertEquals(2, report.getFailed());
+		assertEquals(List.of("1 FAILED Email should be valid", "2 DUPLICATE Email appears earlier in the import",
+				"3 DUPLICATE Email is already registered", "4 FAILED Password is required",
+				"6 DUPLICATE Email is already registered"), describe(report));
+		assertEquals(List.of("Dee", "Doe, Ann", "Tak"),
+				jdbcTemplate.queryForList("SELECT name FROM users ORDER BY name", String.class));
+		String stored = jdbcTemplate.queryForObject("SELECT password FROM users WHERE email = 'dee@example.com'", String.class);
+		assertTrue(passwordHasher.matches("secret", stored) && !stored.equals("secret"));
+	}
+
+	@Test
+	void rechecksTheBatchWhenAnEmailIsRegisteredBetweenCheckAndInsert() {
+		register("race@example.com");
+		UserRepository racing = mock(UserRepository.class, delegatesTo(userRepository));
+		// The first check misses the concurrent registration, the second sees it
+		doReturn(List.of())
+				.doAnswer(invocation -> userRepository.findExistingEmails(invocation.getArgument(0)))
+				.when(racing).findExistingEmails(anyCollection());
+
+		UserImportReport report = new UserImportService(racing, validator, passwordHasher, transactionManager, 10).importUsers(csv(
+				"name,email,password\nEve,eve@example.com,secret\nRace,race@example.com,secret\n"));
+
+		assertEquals(1, report.getCreated());
+		assertEquals(List.of("1 DUPLICATE Email is already registered"), describe(report));
+		verify(racing, times(2)).findExistingEmails(anyCollection());
+		assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+	}
+
+	@Test
+	void rejectsCsvWithoutRequiredColumnsOrWithAnOpenQuote() {
+		assertThrows(IllegalArgumentException.class, () -> csv("name,email\nAnn,ann@example.com\n"));
+		UserCsvReader reader = csv("name,email,password\nAnn,ann@example.com,secret\n\"Bob,bob@example.com,secret\n");
+		assertEquals("Ann", reader.next().getName());
+		assertThrows(IllegalArgumentException.class, reader::hasNext);
+	}
+
+	@Test
+	void reportsTheRowsCreatedBeforeAnOpenQuote() {
+		UserImportReport report = new UserImportService(userRepository, validator, passwordHasher, transactionManager, 1).importUsers(csv(
+				"name,email,password\nAnn,ann@example.com,secret\nBob,bob@example.com,secret\n\"Carl,carl@example.com,secret\n"));
+
+		assertEquals(2, report.getCreated());
+		assertEquals(1, report.getFailed());
+		assertEquals(List.of("2 FAILED Input could not be read past this point: CSV ends inside a quoted field"), describe(report));
+		assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+	}
+
+	@Test
+	void reportsMalformedNdjsonLinesAndImportsTheRest() throws IOException {
+		String ndjson = "{\"name\":\"Ann\",\"email\":\"ann@example.com\",\"password\":\"secret\"}\n"
+				+ "{\"name\":\"Bob\",\"email\":\n"
+				+ "null\n"
+				+ "\n"
+				+ "{\"name\":\"Dee\",\"email\":\"dee@example.com\",\"password\":\"secret\"}\n";
+
+		UserImportReport report;
+		try (NdjsonReader<ImportUser> rows = new NdjsonReader<>(
+				new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), new ObjectMapper().readerFor(ImportUser.class))) {
+			report = new UserImportService(userRepository, validator, passwordHasher, transactionManager, 1).importUsers(rows);
+		}
+
+		assertEquals(2, report.getCreated());
+		assertEquals(2, report.getFailed());
+		assertEquals(List.of(1, 2), report.getRows().stream().map(UserImportReport.Row::getIndex).collect(Collectors.toList()));
+		assertTrue(report.getRows().get(0).getError().startsWith("Line 2 is not valid"));
+		assertEquals("Row is empty", report.getRows().get(1).getError());
+		assertEquals(List.of("Ann", "Dee"), jdbcTemplate.queryForList("SELECT name FROM users ORDER BY name", String.class));
+	}
+
+	private void register(String email) {
+		jdbcTemplate.update("INSERT INTO users (id, name, email, password, is_deleted, created_at, updated_at) "
+				+ "VALUES (RANDOM_UUID(), 'Tak', ?, 'secret', false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", email);
+	}
+
+	private static UserCsvReader csv(String content) {
+		return new UserCsvReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static List<String> describe(UserImportReport report) {
+		return report.getRows().stream()
+				.map(row -> row.getIndex() + " " + row.getStatus() + " " + row.getError())
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,180 @@
+package com.example.todo.functions.userMaster.service;
+
+import com.example.todo.common.dto.CursorPage;
+import com.example.todo.common.security.PasswordHasher;
+import com.example.todo.functions.userMaster.dto.UserSummary;
+import com.example.todo.functions.userMaster.entity.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({UserService.class, PasswordHasher.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:user_cursor;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.sql.init.mode=never",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.todo.functions.userMaster.service.UserServiceCursorTest$SqlCapture"
+})
+class UserServiceCursorTest {
+
+	private static final int USERS = 250;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void seed() {
+		jdbcTemplate.update("DELETE FROM users");
+		// Ten users share each created_at, so pages have to break ties on id
+		// and random ids stand in for rows created before ids were time-ordered
+		Random random = new Random(42);
+		List<Object[]> rows = new ArrayList<>(USERS);
+		for (int i = 0; i < USERS; i++) {
+			Timestamp createdAt = new Timestamp(1_700_000_000_000L + (i / 10) * 1000L);
+			byte[] id = ByteBuffer.allocate(16).putLong(random.nextLong()).putLong(random.nextLong()).array();
+			rows.add(new Object[]{id, "user-" + i, "user" + i + "@example.com",
+					"secret", i % 5 == 0, createdAt, createdAt});
+		}
+		jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email, password, is_deleted, created_at, updated_at) " +
+				"VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+		SqlCapture.clear();
+	}
+
+	@Test
+	void cursorPagesVisitEveryUserOnceInCreationOrder() {
+		List<UserSummary> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			CursorPage<UserSummary> page = userService.getUsersByCursor(cursor, 15, true);
+			seen.addAll(page.getContent());
+			cursor = page.getNextCursor();
+			assertEquals(cursor != null, page.isHasNext());
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(USERS, seen.size());
+		assertEquals(USERS, seen.stream().map(UserSummary::getId).collect(Collectors.toSet()).size());
+		assertEquals(17, pages);
+		assertFalse(SqlCapture.selected().isEmpty());
+		for (int i = 1; i < seen.size(); i++) {
+			UserSummary previous = seen.get(i - 1);
+			UserSummary current = seen.get(i);
+			int byTime = previous.getCreated_at().compareTo(current.getCreated_at());
+			assertTrue(byTime < 0 || (byTime == 0 && unsignedBytes(previous.getId()).compareTo(unsignedBytes(current.getId())) < 0));
+		}
+		assertFalse(SqlCapture.selected().stream().anyMatch(sql -> sql.contains("password")));
+	}
+
+	@Test
+	void deletedUsersAreSkippedUnlessRequested() {
+		List<UserSummary> active = new ArrayList<>();
+		userService.streamUsers(false, active::add);
+
+		assertEquals(200, active.size());
+		assertTrue(active.stream().noneMatch(UserSummary::getIsDeleted));
+		CursorPage<UserSummary> last = userService.getUsersByCursor(null, 500, false);
+		assertEquals(200, last.getContent().size());
+		assertNull(last.getNextCursor());
+		assertFalse(SqlCapture.selected().stream().anyMatch(sql -> sql.contains("password")));
+	}
+
+	@Test
+	void rejectsBadCursorsAndSizes() {
+		assertThrows(IllegalArgumentException.class, () -> userService.getUsersByCursor("not-a-cursor", 10, false));
+		assertThrows(IllegalArgumentException.class, () -> userService.getUsersByCursor(null, 0, false));
+		assertThrows(IllegalArgumentException.class, () -> userService.getUsersByCursor(null, 501, false));
+	}
+
+	// BINARY(16) compares byte by byte, unsigned; UUID.compareTo compares signed longs
+	private static String unsignedBytes(UUID id) {
+		return id.toString();
+	}
+
+	@Test
+	void lookupsAcceptTheStringFormAndIgnoreMalformedIds() {
+		UUID id = new UUID(0x1234L, 0x5678L);
+		jdbcTemplate.update("INSERT INTO users (id, name, email, password, is_deleted, created_at, updated_at) " +
+				"VALUES (?, 'known', 'known@example.com', 'secret', false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)",
+				(Object) ByteBuffer.allocate(16).putLong(0x1234L).putLong(0x5678L).array());
+
+		assertEquals("known", userService.getUserById(id.toString()).getName());
+		assertNull(userService.getUserById("not-a-uuid"));
+		userService.hardDeleteUser("not-a-uuid");
+	}
+
+	// updateUser runs outside any transaction, so the seeded rows have to be committed
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void updatesKeepTheCreationTimeTheCursorIsKeyedOn() {
+		UserSummary first = userService.getUsersByCursor(null, 1, true).getContent().get(0);
+		User update = new User();
+		update.setName("renamed");
+		update.setEmail("renamed@example.com");
+		update.setPassword("changed");
+
+		User updated = userService.updateUser(first.getId().toString(), update);
+
+		assertEquals(first.getCreated_at(), updated.getCreated_at());
+		assertEquals(first.getCreated_at(), jdbcTemplate.queryForObject("SELECT created_at FROM users WHERE name = 'renamed'", Timestamp.class));
+		assertEquals(first.getId(), userService.getUsersByCursor(null, 1, true).getContent().get(0).getId());
+	}
+
+	// Records the SELECTs Hibernate issues
+	public static class SqlCapture implements StatementInspector {
+
+		private static final List<String> STATEMENTS = new ArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			synchronized (STATEMENTS) {
+				STATEMENTS.add(sql.toLowerCase());
+			}
+			return sql;
+		}
+
+		static void clear() {
+			synchronized (STATEMENTS) {
+				STATEMENTS.clear();
+			}
+		}
+
+		static Set<String> selected() {
+			synchronized (STATEMENTS) {
+				return STATEMENTS.stream().filter(sql -> sql.startsWith("select")).collect(Collectors.toSet());
+			}
+		}
+	}
+}